@@ -0,0 +1,63 @@
+package Benchmarks;
+
+import AbstractSyntaxTree.AST;
+import ClassFile.ClassGenerator;
+import Data.TokenBuffer;
+import Helper.SemanticAnalyzer;
+import Parser.Parser;
+import Scanner.Input;
+import Scanner.ScanMode;
+import Scanner.Scanner;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Constant pool and code generation of an analyzed tree
+ *
+ * The primary score is generated classes per second, the class file is not written.
+ *
+ * @author Kr3b5
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClassGeneratorBenchmark {
+
+    @Param({"1000"})
+    public int methods;
+
+    private AST ast;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ast = analyzedTree(methods);
+    }
+
+    /**
+     * Scan, parse and analyze a generated class
+     *
+     * @param methods number of methods
+     * @return tree
+     */
+    static AST analyzedTree(int methods) {
+        TokenBuffer tokens = new TokenBuffer();
+        new Scanner(new Input(SourceGenerator.source("Bench", methods)), "Bench.java", ScanMode.DIRECT).scan(tokens);
+        Parser parser = new Parser(tokens);
+        if (!parser.parseFile().isEmpty()) throw new IllegalStateException("generated source has syntax errors");
+        if (new SemanticAnalyzer().analyze(parser.getAst(), parser.getSymbolTable())) {
+            throw new IllegalStateException("generated source has semantic errors");
+        }
+        return parser.getAst();
+    }
+
+    @Benchmark
+    public int generate() {
+        ClassGenerator generator = new ClassGenerator(ast);
+        generator.generate();
+        return generator.getCodeSize();
+    }
+}
@@ -0,0 +1,42 @@
+package Benchmarks;
+
+import AbstractSyntaxTree.AST;
+import ClassFile.ClassGenerator;
+import ClassFile.ClassWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class file serialization of generated constant pool, fields and methods
+ *
+ * The primary score is class files per second, the bytes stay in memory.
+ *
+ * @author Kr3b5
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClassWriterBenchmark {
+
+    @Param({"1000"})
+    public int methods;
+
+    private AST ast;
+    private ClassGenerator generator;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ast = ClassGeneratorBenchmark.analyzedTree(methods);
+        generator = new ClassGenerator(ast);
+        generator.generate();
+    }
+
+    @Benchmark
+    public byte[] write() {
+        return new ClassWriter(ast).genByteArray(generator);
+    }
+}
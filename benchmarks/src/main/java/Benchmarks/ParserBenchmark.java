@@ -0,0 +1,47 @@
+package Benchmarks;
+
+import Data.TokenBuffer;
+import Parser.Parser;
+import Scanner.Input;
+import Scanner.ScanMode;
+import Scanner.Scanner;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing throughput on a pre scanned token buffer
+ *
+ * The primary score is parsed files per second, the secondary score "tokens" is
+ * the token throughput.
+ *
+ * @author Kr3b5
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+
+    @Param({"1000"})
+    public int methods;
+
+    private TokenBuffer tokens;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        tokens = new TokenBuffer();
+        new Scanner(new Input(SourceGenerator.source("Bench", methods)), "Bench.java", ScanMode.DIRECT).scan(tokens);
+    }
+
+    @Benchmark
+    public void parse(ScannerBenchmark.TokenCounter counter, Blackhole bh) {
+        Parser parser = new Parser(tokens);
+        parser.parseFile();
+        counter.tokens += tokens.size();
+        bh.consume(parser.getAst());
+    }
+}
@@ -0,0 +1,64 @@
+package Benchmarks;
+
+import Data.TokenBuffer;
+import Scanner.Input;
+import Scanner.ScanMode;
+import Scanner.Scanner;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens per second of the hand written and the table driven scanner
+ *
+ * The primary score is scanned files per second, the secondary score "tokens" is
+ * the token throughput.
+ *
+ * @author Kr3b5
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScannerBenchmark {
+
+    @Param({"DIRECT", "TABLE"})
+    public ScanMode mode;
+
+    @Param({"1000"})
+    public int methods;
+
+    private ByteBuffer source;
+    private TokenBuffer tokens;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        source = SourceGenerator.source("Bench", methods);
+        tokens = new TokenBuffer();
+    }
+
+    /**
+     * Token counter, reported as tokens per second
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class TokenCounter {
+        public long tokens;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            tokens = 0;
+        }
+    }
+
+    @Benchmark
+    public void scan(TokenCounter counter, Blackhole bh) {
+        new Scanner(new Input(source), "Bench.java", mode).scan(tokens);
+        counter.tokens += tokens.size();
+        bh.consume(tokens.size());
+    }
+}
@@ -0,0 +1,51 @@
+package Benchmarks;
+
+import AbstractSyntaxTree.AST;
+import Data.SymbolTable;
+import Data.TokenBuffer;
+import Helper.SemanticAnalyzer;
+import Parser.Parser;
+import Scanner.Input;
+import Scanner.ScanMode;
+import Scanner.Scanner;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Semantic analysis of a parsed tree
+ *
+ * The primary score is analyzed files per second. The tree is built
+ * once in the setup, the analyzer does not change the tree.
+ *
+ * @author Kr3b5
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SemanticBenchmark {
+
+    @Param({"1000"})
+    public int methods;
+
+    private AST ast;
+    private SymbolTable symbolTable;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        TokenBuffer tokens = new TokenBuffer();
+        new Scanner(new Input(SourceGenerator.source("Bench", methods)), "Bench.java", ScanMode.DIRECT).scan(tokens);
+        Parser parser = new Parser(tokens);
+        if (!parser.parseFile().isEmpty()) throw new IllegalStateException("generated source has syntax errors");
+        ast = parser.getAst();
+        symbolTable = parser.getSymbolTable();
+    }
+
+    @Benchmark
+    public boolean analyze() {
+        return new SemanticAnalyzer().analyze(ast, symbolTable);
+    }
+}
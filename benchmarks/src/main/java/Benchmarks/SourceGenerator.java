@@ -0,0 +1,77 @@
+package Benchmarks;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Generator for synthetic JavaSST sources
+ *
+ * The generated class contains finals, fields and the given number of methods with
+ * comments, loops, branches and calls, so every token type and grammar rule is used.
+ *
+ * @author Kr3b5
+ */
+public final class SourceGenerator {
+
+    private SourceGenerator() {
+    }
+
+    /**
+     * Generate the source of a class
+     *
+     * @param className class name
+     * @param methods number of methods
+     * @return source
+     */
+    public static String generate(String className, int methods) {
+        StringBuilder sb = new StringBuilder(methods * 512);
+        sb.append("/**\n * Generated benchmark class\n */\n");
+        sb.append("class ").append(className).append(" {\n");
+        sb.append("    final int LIMIT = 100;\n");
+        sb.append("    final int STEP = 3;\n\n");
+        sb.append("    int total;\n");
+        sb.append("    int count;\n\n");
+
+        for (int i = 0; i < methods; i++) {
+            sb.append("    // method ").append(i).append('\n');
+            sb.append("    public int m").append(i).append("(int a, int b) {\n");
+            sb.append("        int x;\n");
+            sb.append("        int y;\n\n");
+            sb.append("        x = a + b * STEP;\n");
+            sb.append("        y = 0;\n");
+            sb.append("        /* loop until the limit is reached */\n");
+            sb.append("        while (y < x) {\n");
+            sb.append("            y = y + ").append(i % 100 + 1).append(";\n");
+            sb.append("            if (y >= LIMIT) {\n");
+            sb.append("                count = count + 1;\n");
+            sb.append("            } else {\n");
+            sb.append("                total = (total + y) / 2;\n");
+            sb.append("            }\n");
+            sb.append("        }\n");
+            sb.append("        if (x != b) {\n");
+            if (i > 0) {
+                sb.append("            y = m").append(i - 1).append("(x - 1, b);\n");
+            } else {
+                sb.append("            y = x - 1;\n");
+            }
+            sb.append("        } else {\n");
+            sb.append("            y = y - a;\n");
+            sb.append("        }\n");
+            sb.append("        return y;\n");
+            sb.append("    }\n\n");
+        }
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    /**
+     * Generated class as source bytes in memory
+     *
+     * @param className class name
+     * @param methods number of methods
+     * @return source bytes (ISO-8859-1)
+     */
+    public static ByteBuffer source(String className, int methods) {
+        return ByteBuffer.wrap(generate(className, methods).getBytes(StandardCharsets.ISO_8859_1));
+    }
+}
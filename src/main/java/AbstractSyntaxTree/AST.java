@@ -1,5 +1,7 @@
 package AbstractSyntaxTree;
 
+import Data.LineIndex;
+import Data.Position;
 import Data.STObject;
 
 /**
@@ -16,6 +18,9 @@ public class AST {
     private ASTNodeContainer vars;
     private ASTNodeContainer methods;
 
+    private String file;
+    private LineIndex lines;
+
     public AST(int ID, STObject object) {
         this.ID = ID;
         this.object = object;
@@ -33,6 +38,16 @@ public class AST {
         this.methods = methods;
     }
 
+    /**
+     * set source of the tree for positions
+     * @param file file name
+     * @param lines line index of the source
+     */
+    public void setSource(String file, LineIndex lines) {
+        this.file = file;
+        this.lines = lines;
+    }
+
     public int getID() {
         return ID;
     }
@@ -52,4 +67,15 @@ public class AST {
     public ASTNodeContainer getMethods() {
         return methods;
     }
+
+    /**
+     * Source position of a node offset
+     *
+     * @param offset byte offset
+     * @return position
+     */
+    public Position getPosition(int offset) {
+        if (lines == null) return new Position(file, 0, 0);
+        return new Position(file, lines.getLine(offset), lines.getColumn(offset));
+    }
 }
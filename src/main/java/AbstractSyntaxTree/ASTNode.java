@@ -1,8 +1,11 @@
 package AbstractSyntaxTree;
 
 import Data.STObject;
+import Data.SymbolPool;
 import Data.TokenType;
 
+import java.util.List;
+
 /**
  * AST node
  *
@@ -11,6 +14,7 @@ import Data.TokenType;
 public class ASTNode {
 
     private int id;
+    private int symbol = SymbolPool.NONE;
     private String name;
 
     private ASTNode left, right;
@@ -23,6 +27,10 @@ public class ASTNode {
 
     private int constant;
 
+    private List<ASTNode> arguments;
+
+    private int offset;
+
 
     // FinalNodes
     public ASTNode(int id, ASTNode left, STObject object) {
@@ -45,8 +53,9 @@ public class ASTNode {
     }
 
     //Vars
-    public ASTNode(int id, String name, ASTClass nodeClass) {
+    public ASTNode(int id, int symbol, String name, ASTClass nodeClass) {
         this.id = id;
+        this.symbol = symbol;
         this.name = name;
         this.nodeClass = nodeClass;
     }
@@ -118,6 +127,32 @@ public class ASTNode {
         this.link = link;
     }
 
+    /**
+     * argument expressions of a PROD node
+     *
+     * @return arguments, empty for other nodes
+     */
+    public List<ASTNode> getArguments() {
+        return arguments == null ? List.of() : arguments;
+    }
+
+    public void setArguments(List<ASTNode> arguments) {
+        this.arguments = arguments;
+    }
+
+    /**
+     * source offset of the first token
+     *
+     * @return byte offset
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    public void setOffset(int offset) {
+        this.offset = offset;
+    }
+
     public ASTClass getNodeClass() {
         return nodeClass;
     }
@@ -126,6 +161,10 @@ public class ASTNode {
         return nodeSubclass;
     }
 
+    public int getSymbol() {
+        return symbol;
+    }
+
     public String getName() {
         return name;
     }
@@ -6,6 +6,7 @@ import org.apache.logging.log4j.Logger;
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -30,11 +31,20 @@ public class ASTPrinter {
      * @param ast AST
      */
     public void printDot(AST ast){
+        printDot(ast, Path.of(""));
+    }
+
+    /**
+     * print dot file into a directory
+     * @param ast AST
+     * @param directory output directory
+     */
+    public void printDot(AST ast, Path directory){
 
         extractNodestoList(ast);
 
         try {
-            createDotFile();
+            createDotFile(directory);
             writeNodes();
             writeConnections();
             endDotFile();
@@ -47,10 +57,11 @@ public class ASTPrinter {
 
     /**
      * create file
+     * @param directory output directory
      * @throws IOException file creation error
      */
-    private void createDotFile() throws IOException {
-        writer = new BufferedWriter(new FileWriter(filename + ".dot"));
+    private void createDotFile(Path directory) throws IOException {
+        writer = new BufferedWriter(new FileWriter(directory.resolve(filename + ".dot").toFile()));
         writer.write("digraph " + filename + " {");
         writer.newLine();
     }
@@ -159,7 +170,7 @@ public class ASTPrinter {
             for (ASTNode node : methodnode) {
                 printObjs.add(new ASTPrintObj(node.getId(), node.getObject().getName(), null, node.getLink().getId() ));
                 cMethods.setConnections(node.getId());
-                getNextNodes(node.getLink());
+                ASTWalker.walk(node.getLink(), new NodeCollector());
             }
         }
 
@@ -172,13 +183,28 @@ public class ASTPrinter {
     }
 
     /**
-     * iterate trough nodes
+     * collect the nodes of a statement chain
+     */
+    private class NodeCollector implements ASTVisitor {
+
+        @Override
+        public boolean enter(ASTNode node) {
+            printObjs.add(getPrintObj(node));
+            // the target of an assignment is not walked
+            if(node.getNodeClass() == ASTClass.ASSIGN) printObjs.add(getPrintObj(node.getLeft()));
+            return true;
+        }
+    }
+
+    /**
+     * create print object of a node
      *
-     * @param node next node
+     * @param node node
+     * @return print object
      */
-    private void getNextNodes(ASTNode node){
+    private ASTPrintObj getPrintObj(ASTNode node){
         ASTPrintObj printObj = new ASTPrintObj(node.getId(), node.getNodeClass().name());
-        
+
         if(node.getNodeClass().equals(ASTClass.INT)){
             printObj.setSecondline(String.valueOf(node.getConstant()));
         }else if (node.getNodeSubclass() != null ){
@@ -187,20 +213,14 @@ public class ASTPrinter {
             printObj.setSecondline(node.getName());
         }
 
-        if(node.getLeft() != null){
-            printObj.setConLeft(node.getLeft().getId());
-            getNextNodes(node.getLeft());
-        }
-        if(node.getRight() != null){
-            printObj.setConRight(node.getRight().getId());
-            getNextNodes(node.getRight());
-        }
-        if(node.getLink() != null){
-            printObj.setConLink(node.getLink().getId());
-            getNextNodes(node.getLink());
+        for (ASTNode argument : node.getArguments()) {
+            printObj.setConnections(argument.getId());
         }
+        if(node.getLeft() != null) printObj.setConLeft(node.getLeft().getId());
+        if(node.getRight() != null) printObj.setConRight(node.getRight().getId());
+        if(node.getLink() != null) printObj.setConLink(node.getLink().getId());
 
-        printObjs.add(printObj);
+        return printObj;
     }
 
     /**
@@ -0,0 +1,40 @@
+package AbstractSyntaxTree;
+
+/**
+ * Visitor for the ASTWalker
+ *
+ * @author Kr3b5
+ */
+public interface ASTVisitor {
+
+    /**
+     * called before the children of a node
+     * @param node node
+     * @return false to skip the children
+     */
+    default boolean enter(ASTNode node) {
+        return true;
+    }
+
+    /**
+     * called between two children of a node
+     * @param node node
+     * @param index index of the child that is done
+     */
+    default void between(ASTNode node, int index) {
+    }
+
+    /**
+     * called after the children of a node
+     * @param node node
+     */
+    default void leave(ASTNode node) {
+    }
+
+    /**
+     * called after a statement of a statement chain, before the next statement
+     * @param node statement
+     */
+    default void endStatement(ASTNode node) {
+    }
+}
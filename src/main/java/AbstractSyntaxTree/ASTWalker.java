@@ -0,0 +1,114 @@
+package AbstractSyntaxTree;
+
+import java.util.ArrayDeque;
+
+/**
+ * Non recursive AST traversal
+ *
+ * Walks a statement chain with an explicit stack. The stack only grows with the nesting
+ * depth, the next statement of a chain replaces the actual one.
+ *
+ * Children by node class:
+ *      - ASSIGN                  right (the target is part of the node)
+ *      - BINOP, IF, WHILE        left, right
+ *      - IF_ELSE                 left (IF), right (else statements)
+ *      - RETURN                  left (if not void)
+ *      - PROD                    arguments
+ *
+ * The right child of IF, WHILE and IF_ELSE is a statement chain.
+ *
+ * @author Kr3b5
+ */
+public final class ASTWalker {
+
+    private static final int ENTER = -1;
+
+    /**
+     * Stack entry
+     */
+    private static final class Frame {
+        final ASTNode node;
+        final boolean statement;
+        int child = ENTER;
+        int count;
+
+        Frame(ASTNode node, boolean statement) {
+            this.node = node;
+            this.statement = statement;
+        }
+    }
+
+    private ASTWalker() {
+    }
+
+    /**
+     * walk a statement chain
+     * @param first first statement
+     * @param visitor visitor
+     */
+    public static void walk(ASTNode first, ASTVisitor visitor) {
+        walk(first, null, visitor);
+    }
+
+    /**
+     * walk a part of a statement chain
+     * @param first first statement
+     * @param end statement after the last one, null for the whole chain
+     * @param visitor visitor
+     */
+    public static void walk(ASTNode first, ASTNode end, ASTVisitor visitor) {
+        if (first == null) return;
+        ArrayDeque<Frame> stack = new ArrayDeque<>();
+        stack.push(new Frame(first, true));
+
+        while (!stack.isEmpty()) {
+            Frame frame = stack.peek();
+            ASTNode node = frame.node;
+
+            if (frame.child == ENTER) {
+                frame.count = visitor.enter(node) ? childCount(node) : 0;
+                frame.child = 0;
+            }
+
+            if (frame.child < frame.count) {
+                if (frame.child > 0) visitor.between(node, frame.child - 1);
+                int index = frame.child++;
+                ASTNode child = child(node, index);
+                if (child != null) stack.push(new Frame(child, isChain(node, index)));
+                continue;
+            }
+
+            stack.pop();
+            visitor.leave(node);
+            if (frame.statement) {
+                visitor.endStatement(node);
+                if (node.getLink() != null && node.getLink() != end) stack.push(new Frame(node.getLink(), true));
+            }
+        }
+    }
+
+    private static int childCount(ASTNode node) {
+        if (node.getNodeClass() == null) return 0;
+        return switch (node.getNodeClass()) {
+            case PROD -> node.getArguments().size();
+            case ASSIGN, RETURN -> 1;
+            case BINOP, IF, IF_ELSE, WHILE -> 2;
+            default -> 0;
+        };
+    }
+
+    private static ASTNode child(ASTNode node, int index) {
+        return switch (node.getNodeClass()) {
+            case PROD -> node.getArguments().get(index);
+            case ASSIGN -> node.getRight();
+            default -> index == 0 ? node.getLeft() : node.getRight();
+        };
+    }
+
+    private static boolean isChain(ASTNode node, int index) {
+        return index == 1 && switch (node.getNodeClass()) {
+            case IF, IF_ELSE, WHILE -> true;
+            default -> false;
+        };
+    }
+}
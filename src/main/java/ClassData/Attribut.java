@@ -28,6 +28,8 @@ public class Attribut {
     private short start_pc;
     private short line_number;
 
+    private byte[] info;
+
 
     // Class + Fields
     public Attribut(short nameIndex, int length, short index) {
@@ -56,6 +58,13 @@ public class Attribut {
         this.attributes = attributes;
     }
 
+    //StackMapTable - info is written as it is
+    public Attribut(short nameIndex, byte[] info) {
+        this.nameIndex = nameIndex;
+        this.length = info.length;
+        this.info = info;
+    }
+
     //LineNumberTableAttr
     public Attribut(short start_pc, short line_number) {
         this.start_pc = start_pc;
@@ -112,4 +121,8 @@ public class Attribut {
         return line_number;
     }
 
+    public byte[] getInfo() {
+        return info;
+    }
+
 }
@@ -40,11 +40,14 @@ public enum InsSet {
 
     BIPUSH                  ((byte) 0x10),
 
+    POP                     ((byte) 0x57),
+
     IADD                    ((byte) 0x60),
     ISUB                    ((byte) 0x64),
     IMUL                    ((byte) 0x68),
     IDIV                    ((byte) 0x6c),
 
+    IFEQ                    ((byte) 0x99),              // == 0
     IFICMPEQ                ((byte) 0x9f),              // ==
     IFICMPNE                ((byte) 0xa0),              // !=
     IFICMPLT                ((byte) 0xa1),              // <
@@ -53,6 +56,7 @@ public enum InsSet {
     IFICMPGE                ((byte) 0xa2),              // >=
 
     GOTO                    ((byte) 0xa7),
+    GOTO_W                  ((byte) 0xc8),
 
     GETFIELD                ((byte) 0xb4),
     PUTFIELD                ((byte) 0xb5);
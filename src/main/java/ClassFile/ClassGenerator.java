@@ -3,13 +3,13 @@ package ClassFile;
 import AbstractSyntaxTree.AST;
 import AbstractSyntaxTree.ASTClass;
 import AbstractSyntaxTree.ASTNode;
-import AbstractSyntaxTree.ASTNodeContainer;
+import AbstractSyntaxTree.ASTVisitor;
+import AbstractSyntaxTree.ASTWalker;
 import ClassData.*;
 import Data.*;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.nio.ByteBuffer;
 import java.util.*;
 
 /**
@@ -26,44 +26,65 @@ public class ClassGenerator {
     private static final Logger logger = LogManager.getLogger(ClassGenerator.class.getName());
 
 
-    private short countConstantPool;
-    private final HashMap<Short, CPConstant> constantPool;
-    private final LinkedList<Field> fields;
-    private final LinkedList<Method> methods;
+    private static final String OBJECT = "java/lang/Object";
+    private static final String INIT = "<init>";
+    private static final String VOID_DESCRIPTOR = "()V";
+    private static final String INT_DESCRIPTOR = "I";
 
-    private final AST ast;
+    /** HugeMethodLimit of HotSpot, larger methods are not JIT compiled */
+    public static final int HUGE_METHOD_LIMIT = 8000;
+
+    // ACC_PRIVATE | ACC_SYNTHETIC
+    private static final short SPLIT_ACCESS = 0x1002;
+    // 255 argument slots with this
+    private static final int SPLIT_PARAMETERS = 254;
 
-    private final List<String> called;
+    private final ConstantPoolBuilder constantPool;
+    private final List<Field> fields;
+    private final List<Method> methods;
+
+    private final AST ast;
+    private String className;
 
     private short classIndex;
     private short superclassIndex;
+    private short initIndex;
     private short sourcefileIndex;
+    private short sourcefileNameIndex;
     private short codeIndex;
 
-    private final ByteBuffer codeBuffer = ByteBuffer.allocate(65536);
-    private int cur;
-
-    private List<StackSafe> stackSafes;
-    private List<Short> field_ref;
+    private final CodeBuilder code = new CodeBuilder();
+    private int codeSize;
+
+    // method splitting
+    private int maxMethodSize = HUGE_METHOD_LIMIT;
+    private String splitName;
+    private int splitCount;
+    private boolean splitTypeInt;
+    private boolean splitReturns;
+    private final List<SplitMethod> splitMethods = new ArrayList<>();
+    private final IdentityHashMap<ASTNode, SplitMethod> outlined = new IdentityHashMap<>();
+    private final IdentityHashMap<ASTNode, List<Part>> splitChains = new IdentityHashMap<>();
+    private final IdentityHashMap<ASTNode, Integer> splitSizes = new IdentityHashMap<>();
+    private final Set<String> splitFields = new HashSet<>();
+    private IdentityHashMap<STObject, Integer> slots;
+
+    private SymbolTable methodScope;
     private boolean typeInt;
 
-    private int countMethods;
-    private boolean containsReturnNode;
     private boolean containsLastReturnVoid;
 
-    private short maxStackSize;
-    private short stackSize;
+    private FrameAnalyzer frameAnalyzer;
+    private final List<Diagnostic> diagnostics = new ArrayList<>();
 
     //debug
     boolean debugMode;
 
     public ClassGenerator(AST ast) {
-        this.countConstantPool = 1;
-        this.constantPool = new HashMap<>();
-        this.fields = new LinkedList<>();
-        this.methods = new LinkedList<>();
+        this.constantPool = new ConstantPoolBuilder();
+        this.fields = new ArrayList<>();
+        this.methods = new ArrayList<>();
         this.ast = ast;
-        this.called = new LinkedList<>();
         debugMode = false;
         typeInt = false;
     }
@@ -73,12 +94,27 @@ public class ClassGenerator {
         this.debugMode = debugMode;
     }
 
-    public LinkedList<Field> getFields() { return fields; }
-    public LinkedList<Method> getMethods() { return methods; }
+    /**
+     * methods with more bytecode are split
+     * @param maxMethodSize size in bytes, HUGE_METHOD_LIMIT by default
+     */
+    public void setMaxMethodSize(int maxMethodSize) {
+        this.maxMethodSize = maxMethodSize;
+    }
+
+    public List<Field> getFields() { return fields; }
+    public List<Method> getMethods() { return methods; }
     public short getClassIndex() { return classIndex; }
     public short getSuperclassIndex() { return superclassIndex; }
     public short getSourcefileIndex() { return sourcefileIndex; }
-    public HashMap<Short, CPConstant> getConstantPool() { return constantPool;}
+    public short getSourcefileNameIndex() { return sourcefileNameIndex; }
+    public ConstantPoolBuilder getConstantPool() { return constantPool;}
+    public int getCodeSize() { return codeSize; }
+
+    /**
+     * @return errors of the code generation, the class file is invalid if not empty
+     */
+    public List<Diagnostic> getDiagnostics() { return diagnostics; }
 
 
     /**
@@ -91,277 +127,94 @@ public class ClassGenerator {
 
 
     /**
-     * Generate Constant Pool
+     * Generate Constant Pool - class, fields and methods
+     *
+     * Adds the entries of the class structure through the ConstantPoolBuilder: Object.<init>,
+     * the class, the field and method names and descriptors, the ConstantValue Integer of
+     * the finals and the SourceFile. Fieldref and Methodref entries are added by the code
+     * generation the first time an instruction references them, the builder returns the
+     * index of an existing entry.
      */
     public void genConstantPool() {
+        className = ast.getObject().getName();
         genPoolHead();
         genPoolClass();
-        genPoolFinals();
-        genPoolCalls();
-        genPoolConstants();
-        genNotCalledVars();
-        genPoolCodeHead();
-        genPoolCodeBody();
+        genPoolFields();
+        genPoolMethods();
         genPoolEnd();
-
-        if(debugMode) printConstantPool();
     }
 
     /*
-     #1 = Methodref          #2.#3          // java/lang/Object."<init>":()V
-      #2 = Class              #4             // java/lang/Object
-      #3 = NameAndType        #5:#6          // "<init>":()V
-      #4 = Utf8               java/lang/Object
-      #5 = Utf8               <init>
-      #6 = Utf8               ()V
+     #1 = Utf8               java/lang/Object
+     #2 = Class              #1             // java/lang/Object
+     #3 = Utf8               <init>
+     #4 = Utf8               ()V
+     #5 = NameAndType        #3:#4          // "<init>":()V
+     #6 = Methodref          #2.#5          // java/lang/Object."<init>":()V
     */
     /**
      * generate Constantpool part - head
      */
     private void genPoolHead() {
-        addToPool(new CPConstant((byte) CPTypes.METHOD.value, (short) 2, (short) 3));
-        superclassIndex = countConstantPool;
-        addToPool(new CPConstant((byte) CPTypes.CLASS.value, (short) 4));
-        addToPool(new CPConstant((byte) CPTypes.NAMEANDTYPE.value, (short) 5, (short) 6));
-        String obj = "java/lang/Object";
-        addToPool(new CPConstant((byte) CPTypes.UTF8.value, (short) obj.length(), obj));
-        String init = "<init>";
-        addToPool(new CPConstant((byte) CPTypes.UTF8.value, (short) init.length(), init));
-        String v = "()V";
-        addToPool(new CPConstant((byte) CPTypes.UTF8.value, (short) v.length(), v));
+        initIndex = constantPool.methodRef(OBJECT, INIT, VOID_DESCRIPTOR);
+        superclassIndex = constantPool.classRef(OBJECT);
     }
 
     /*
-      #7 = Class              #8             // EmptyClass
-      #8 = Utf8               EmptyClass
+      #7 = Utf8               EmptyClass
+      #8 = Class              #7             // EmptyClass
+      #9 = Utf8               Code
     */
     /**
      * generate Constantpool part - class
      */
     private void genPoolClass() {
-        classIndex = countConstantPool;
-        addToPool(new CPConstant((byte) CPTypes.CLASS.value, (short) (countConstantPool + 1)));
-        methods.add(new Method((short)1, (short) 5, (short) 6, (short) 0, null));
-        addToPool(new CPConstant((byte) CPTypes.UTF8.value, (short) ast.getObject().getName().length(), ast.getObject().getName()));
+        classIndex = constantPool.classRef(className);
+        codeIndex = constantPool.utf8("Code");
+        methods.add(new Method((short)1, constantPool.utf8(INIT), constantPool.utf8(VOID_DESCRIPTOR), (short) 0, null));
     }
 
-    /* FINALS
-        #7 = Fieldref           #8.#9          // ClassTest2.fvar1:I
-        #9 = NameAndType        #11:#12        // fvar1:I
-        #11 = Utf8               fvar1
-        #12 = Utf8               I
+    /* FINALS + Globals
+        #10 = Utf8               fvar1
+        #11 = Utf8               I
+        #12 = Utf8               ConstantValue
+        #13 = Integer            1
+        #14 = Utf8               dyn1
      */
     /**
-     * generate Constantpool part - finals
+     * generate Constantpool part - fields, finals have a ConstantValue attribute
      */
-    private void genPoolFinals() {
-        field_ref = new LinkedList<>();
-
-        ASTNodeContainer finals = ast.getFinals();
-        for (ASTNode node : finals.getNodes()) {
-            short nameIndex;
+    private void genPoolFields() {
+        for (ASTNode node : ast.getFinals().getNodes()) {
             STObject stobject = node.getObject();
-            field_ref.add(countConstantPool);
-            addToPool(new CPConstant((byte) CPTypes.FIELD.value, classIndex , (short) (countConstantPool + 1)));
-            short key = getKeyByStringValue("I");
-            if( key != 0){
-                addToPool(new CPConstant((byte) CPTypes.NAMEANDTYPE.value, (short) (countConstantPool + 1), key));
-                nameIndex = countConstantPool;
-                addToPool(new CPConstant((byte) CPTypes.UTF8.value, (short) stobject.getName().length(), stobject.getName()));
-            }else{
-                addToPool(new CPConstant((byte) CPTypes.NAMEANDTYPE.value, (short) (countConstantPool + 1), (short) (countConstantPool + 2)));
-                nameIndex = countConstantPool;
-                addToPool(new CPConstant((byte) CPTypes.UTF8.value, (short) stobject.getName().length(), stobject.getName()));
-                key = countConstantPool;
-                addToPool(new CPConstant((byte) CPTypes.UTF8.value, (short)1, "I"));
-            }
-
-            // add Fields to Fieldlist
             // ACC_FINAL 0x0010
-            Field field = new Field((short)0x10, nameIndex, key, (short) 0, null);
-            fields.add(field);
-        }
-    }
+            Field field = new Field((short)0x10, constantPool.utf8(stobject.getName()), constantPool.utf8(INT_DESCRIPTOR), (short) 0, null);
 
-    /* METHOD Called!
-        #16 = Methodref          #8.#17         // ClassTest2.meth2:(II)I
-        #17 = NameAndType        #18:#19        // meth2:(II)I
-        #18 = Utf8               meth2
-        #19 = Utf8               (II)I
-     */
-    /* Globals
-        #20 = Fieldref           #8.#21         // ClassTest2.dyn1:I
-        #21 = NameAndType        #22:#12        // dyn1:I
-        #22 = Utf8               dyn1
-     */
-    /**
-     * generate Constantpool part - called VAR + METHODS
-     */
-    private void genPoolCalls() {
-        ASTNodeContainer methodsList = ast.getMethods();
-        for (ASTNode n : methodsList.getNodes()) {
-            findNextCalledNode(n.getLink());
-        }
-
-        for (ASTNode n : methodsList.getNodes()) {
-            if(called.contains(n.getObject().getName())){
-                String pKey = getPKey(n);
-                short key = getKeyByStringValue(pKey);
-                if( key != 0){
-                    addToPool(new CPConstant((byte) CPTypes.METHOD.value, classIndex , (short) (countConstantPool + 1)));
-                    addToPool(new CPConstant((byte) CPTypes.NAMEANDTYPE.value, (short) (countConstantPool + 1), key));
-                    addToPool(new CPConstant((byte) CPTypes.UTF8.value, (short) n.getObject().getName().length(), n.getObject().getName()));
-                }else{
-                    addToPool(new CPConstant((byte) CPTypes.METHOD.value, classIndex , (short) (countConstantPool + 1)));
-                    addToPool(new CPConstant((byte) CPTypes.NAMEANDTYPE.value, (short) (countConstantPool + 1), (short) (countConstantPool + 2)));
-                    addToPool(new CPConstant((byte) CPTypes.UTF8.value, (short) n.getObject().getName().length(), n.getObject().getName()));
-                    addToPool(new CPConstant((byte) CPTypes.UTF8.value, (short) pKey.length(), pKey));
-                }
-            }
-        }
-
-        ASTNodeContainer globals = ast.getVars();
-        for (ASTNode n : globals.getNodes()) {
-            if(called.contains(n.getObject().getName())){
-                short key = getKeyByStringValue("I");
-                short nameIndex = (short) (countConstantPool + 2);
-                if( key != 0){
-                    addToPool(new CPConstant((byte) CPTypes.FIELD.value, classIndex , (short) (countConstantPool + 1)));
-                    addToPool(new CPConstant((byte) CPTypes.NAMEANDTYPE.value, (short) (countConstantPool + 1), key));
-                    addToPool(new CPConstant((byte) CPTypes.UTF8.value, (short) n.getObject().getName().length(), n.getObject().getName()));
-                }else{
-                    addToPool(new CPConstant((byte) CPTypes.FIELD.value, classIndex , (short) (countConstantPool + 1)));
-                    addToPool(new CPConstant((byte) CPTypes.NAMEANDTYPE.value, (short) (countConstantPool + 1), (short) (countConstantPool + 2)));
-                    addToPool(new CPConstant((byte) CPTypes.UTF8.value, (short) n.getObject().getName().length(), n.getObject().getName()));
-                    key = countConstantPool;
-                    addToPool(new CPConstant((byte) CPTypes.UTF8.value, (short)1, "I"));
-                }
-                fields.add(new Field((short)0, nameIndex, key, (short) 0, null));
-            }
-        }
-    }
-
-
-    /**
-     * Find called VAR + PROD
-     */
-    private void findNextCalledNode(ASTNode node){
-        if(node.getNodeClass().equals(ASTClass.VAR) ||
-                node.getNodeClass().equals(ASTClass.PROD)){
-            if(!called.contains(node.getName())){
-                called.add(node.getName());
-            }
-            if(node.getObject() != null){
-                findNextCalledSubNodes(node.getObject().getSymtab());
-            }
-        }
-        if(node.getLeft() != null){
-            findNextCalledNode(node.getLeft());
-        }
-        if(node.getRight() != null){
-            findNextCalledNode(node.getRight());
-        }
-        if(node.getLink() != null){
-            findNextCalledNode(node.getLink());
-        }
-    }
-
-    /**
-     * Find called subnodes (Symboltable)
-     */
-    private void findNextCalledSubNodes(SymbolTable st){
-        for (STObject stObject: st.getObjects()) {
-            if(stObject.getObjClass().equals(ObjClass.PROC)){
-                if(!called.contains(stObject.getName())){
-                    called.add(stObject.getName());
-                }
-                if(stObject.getSymtab() != null) findNextCalledSubNodes(stObject.getSymtab());
-            }
+            Attribut constantValue = new Attribut(constantPool.utf8("ConstantValue"), 2, constantPool.integer(stobject.getIntValue()));
+            List<Attribut> attributes = new LinkedList<>();
+            attributes.add(constantValue);
+            field.setCountAttributes((short)1);
+            field.setAttributes(attributes);
+            fields.add(field);
         }
-    }
 
-
-    /*
-         #30 = Utf8               ConstantValue
-         #31 = Integer            1
-     */
-    /**
-     * generate Constantpool part - Constant values
-     */
-    private void genPoolConstants(){
-        ASTNodeContainer finals = ast.getFinals();
-        if( !finals.getNodes().isEmpty()){
-            String c = "ConstantValue";
-            short constantValueIndex = countConstantPool;
-            int i = 0;
-            addToPool(new CPConstant((byte) CPTypes.UTF8.value, (short) c.length(), c));
-            for (ASTNode node : finals.getNodes()) {
-                STObject stobject = node.getObject();
-                Attribut constantValue = new Attribut(constantValueIndex, 2, countConstantPool);
-                addToPool(new CPConstant((byte) CPTypes.INTEGER.value, stobject.getIntValue()));
-
-                fields.get(i).setCountAttributes((short)1);
-                List<Attribut> attributes = new LinkedList<>();
-                attributes.add(constantValue);
-                fields.get(i).setAttributes(attributes);
-                i++;
-            }
+        for (ASTNode n : ast.getVars().getNodes()) {
+            fields.add(new Field((short)0, constantPool.utf8(n.getObject().getName()), constantPool.utf8(INT_DESCRIPTOR), (short) 0, null));
         }
     }
 
-    /*
-         #40 = Utf8               var1
-    */
-    /**
-     * generate Constantpool part - not called VAR
-     */
-    private void genNotCalledVars(){
-        ASTNodeContainer globals = ast.getVars();
-        for (ASTNode n : globals.getNodes()) {
-            if(!called.contains(n.getObject().getName())){
-                // add Globals to Fieldlist
-                Field field = new Field((short)0, countConstantPool, getKeyByStringValue("I"), (short) 0, null);
-                fields.add(field);
-
-                addToPool(new CPConstant((byte) CPTypes.UTF8.value, (short) n.getObject().getName().length(), n.getObject().getName()));
-            }
-        }
-    }
-
-
-    /*
-       #9 = Utf8               Code
-      #10 = Utf8               LineNumberTable
-     */
-    /**
-     * generate Constantpool part - Code head
-     */
-    private void genPoolCodeHead() {
-        String c = "Code";
-        codeIndex = countConstantPool;
-        addToPool(new CPConstant((byte) CPTypes.UTF8.value, (short) c.length(), c));
-        String lnt = "LineNumberTable";
-        addToPool(new CPConstant((byte) CPTypes.UTF8.value, (short) lnt.length(), lnt));
-    }
-
     /*
      #40 = Utf8               meth1
      #41 = Utf8               (I)V
     */
     /**
-     * generate Constantpool part - not called methods
-     */
-    private void genPoolCodeBody() {
-        ASTNodeContainer methodList = ast.getMethods();
-        for (ASTNode n : methodList.getNodes()) {
-            if(!called.contains(n.getObject().getName())){
-                String pKey = getPKey(n);
-                short key = getKeyByStringValue(pKey);
-                addToPool(new CPConstant((byte) CPTypes.UTF8.value, (short) n.getObject().getName().length(), n.getObject().getName()));
-                if (key == 0) {
-                    addToPool(new CPConstant((byte) CPTypes.UTF8.value, (short) pKey.length(), pKey));
-                }
-            }
+     * generate Constantpool part - methods, in declaration order after <init>
+     */
+    private void genPoolMethods() {
+        for (ASTNode n : ast.getMethods().getNodes()) {
+            short nameIndex         = constantPool.utf8(n.getObject().getName());
+            short signatureIndex    = constantPool.utf8(getPKey(n.getObject()));
+            methods.add(new Method((short)1, nameIndex, signatureIndex, (short) 0, null));
         }
     }
 
@@ -373,55 +226,24 @@ public class ClassGenerator {
      * generate Constantpool part - end
      */
     private void genPoolEnd() {
-        String sf = "SourceFile";
-        String name = ast.getObject().getName() + ".java";
-        sourcefileIndex = countConstantPool;
-        addToPool(new CPConstant((byte) CPTypes.UTF8.value, (short) sf.length(), sf));
-        addToPool(new CPConstant((byte) CPTypes.UTF8.value, (short) name.length(), name));
+        sourcefileIndex = constantPool.utf8("SourceFile");
+        sourcefileNameIndex = constantPool.utf8(className + ".java");
     }
 
 
     // HELPER
-    /**
-     * Add to Constant Pool
-     * @param c Constantpoolconstant
-     */
-    private void addToPool(CPConstant c) {
-        constantPool.put(countConstantPool, c);
-        countConstantPool++;
-    }
-
-    /**
-     * Find parameterkey from method
-     * @param value name
-     * @return parameterkey
-     */
-    private Short getKeyByStringValue(String value) {
-        for (Map.Entry<Short,CPConstant> entry : constantPool.entrySet()) {
-            if (entry.getValue().getsValue() != null && value.equals(entry.getValue().getsValue())) {
-                return entry.getKey();
-            }
-        }
-        return 0;
-    }
-
     /**
      * generate parameterkey from method
-     * @param n methodnode
+     * @param method method object
      * @return paramterkey
      */
-    private String getPKey(ASTNode n){
-        int cInts = 0;
-        for (STObject obj : n.getObject().getSymtab().getObjects()) {
-            if (obj.getObjClass().equals(ObjClass.PAR)) {
-                cInts++;
-            }
-        }
+    private String getPKey(STObject method){
+        int cInts = countParameters(method);
         //parameter key
         StringBuilder sb = new StringBuilder("(");
         sb.append("I".repeat(Math.max(0, cInts)));
         sb.append(")");
-        if(n.getObject().getSTType().equals(STType.INT)){
+        if(method.getSTType().equals(STType.INT)){
             sb.append("I");
         }else{
             sb.append("V");
@@ -429,6 +251,21 @@ public class ClassGenerator {
         return sb.toString();
     }
 
+    /**
+     * number of parameters, all parameters are int
+     * @param method method binding
+     * @return count
+     */
+    private int countParameters(STObject method){
+        int cInts = 0;
+        for (STObject obj : method.getSymtab().getObjects()) {
+            if (obj.getObjClass().equals(ObjClass.PAR)) {
+                cInts++;
+            }
+        }
+        return cInts;
+    }
+
     // DEBUG
     /**
      * Debug - print Constantpool
@@ -436,7 +273,7 @@ public class ClassGenerator {
     private void printConstantPool(){
         logger.info("Constant Pool");
         int count = 1;
-        for (CPConstant c: constantPool.values()) {
+        for (CPConstant c: constantPool.getEntries()) {
             byte type = c.getType();
             String prestring = "   #" + count;
             if(constantPool.size() >= 10 && count < 10){
@@ -471,45 +308,31 @@ public class ClassGenerator {
     // CODEGEN
 
     /**
-     * generate method code
+     * generate method code, needs the methods of genConstantPool
      */
     public void genCode(){
-        addMethods();
+        frameAnalyzer = new FrameAnalyzer(constantPool, classIndex);
         genClassCode();
         genMethodCode();
-    }
 
-    /**
-     * Add methods to list
-     */
-    private void addMethods() {
-        ASTNodeContainer methodsList = ast.getMethods();
-        for (ASTNode n : methodsList.getNodes()) {
-            String pKey = getPKey(n);
-            short signatureIndex    = getKeyByStringValue(pKey);
-            short nameIndex         = getKeyByStringValue(n.getObject().getName());
-            methods.add(new Method((short)1, nameIndex, signatureIndex, (short) 0, null));
-        }
+        if(debugMode) printConstantPool();
     }
 
     /**
      * generate classcode
      */
     private void genClassCode(){
-        codeBuffer.clear();
-        cur = 0;
+        code.reset();
 
         List<Attribut> attCode = new LinkedList<>();
 
         //GENHEAD
         insertByte(InsSet.ALOAD_0.bytes);
         insertByte(InsSet.INVOKESPECIAL.bytes);
-        insertShort((short)1);
+        insertShort(initIndex);
 
         //GENCODE
-        int i = 0;
-        ASTNodeContainer finals = ast.getFinals();
-        for (ASTNode node : finals.getNodes()) {
+        for (ASTNode node : ast.getFinals().getNodes()) {
             STObject stobject = node.getObject();
 
             insertByte(InsSet.ALOAD_0.bytes);
@@ -521,20 +344,14 @@ public class ClassGenerator {
             }
 
             insertByte(InsSet.PUTFIELD.bytes);
-            insertShort(field_ref.get(i));
-            i++;
+            insertShort(constantPool.fieldRef(className, stobject.getName(), INT_DESCRIPTOR));
         }
 
         //GENEND
         insertByte(InsSet.RETURN.bytes);
 
-        byte[] code = new byte[cur];
-        codeBuffer.get(0, code, 0, code.length);
-
-
-        short size = (short)(12 + cur);
-        Attribut classCode = new Attribut(codeIndex, size, (short)2, (short)1, cur, code, (short)0, null);
-        attCode.add(classCode);
+        FrameAnalyzer.Result result = frameAnalyzer.analyze(code.toByteArray(), 1, true);
+        attCode.add(codeAttribute(result));
 
         methods.get(0).setCountAttributes((short)1);
         methods.get(0).setAttributes(attCode);
@@ -544,435 +361,961 @@ public class ClassGenerator {
      * generate methodcode
      */
     private void genMethodCode(){
+        // methods are added in declaration order after <init>
+        int mID = 1;
         for (ASTNode methodroot : ast.getMethods().getNodes()) {
-            stackSafes = new LinkedList<>();
-            codeBuffer.clear();
-            cur = 0;
-            stackSize = maxStackSize = 0;
-            short locals = (short) (methodroot.getObject().getSymtab().getObjects().size() + 1);
-
-            //getParameter
-            int i = 1;
-            for (STObject param : methodroot.getObject().getSymtab().getObjects()) {
-                if(param.getObjClass().equals(ObjClass.PAR)) stackSafes.add(new StackSafe(i, param.getName())); i++;
+            try {
+                genMethod(methodroot, mID);
+            } catch (IllegalStateException e) {
+                // code the verifier would reject or that does not fit into a class file
+                diagnostics.add(new Diagnostic(ast.getPosition(methodroot.getOffset()),
+                        "Method " + methodroot.getObject().getName() + ": " + e.getMessage()));
+                clearSplit();
+                slots = null;
             }
+            mID++;
+        }
+    }
 
-            //get Type for Return
-            typeInt = methodroot.getObject().getSTType().equals(STType.INT);
+    /**
+     * generate the code of a method and its split methods
+     * @param methodroot method node
+     * @param mID index in methods
+     */
+    private void genMethod(ASTNode methodroot, int mID){
+        methodScope = methodroot.getObject().getSymtab();
+        code.reset();
+
+        //get Type for Return
+        typeInt = methodroot.getObject().getSTType().equals(STType.INT);
+
+        //analyze all Subnodes
+        ASTWalker.walk(methodroot.getLink(), new CodeVisitor());
+        boolean split = code.size() > maxMethodSize;
+        if(split){
+            code.reset();
+            genSplitCode(methodroot);
+        }
 
-            //analyze all Subnodes
-            analyzeNextNode(methodroot.getLink());
+        if(!typeInt && !containsLastReturnVoid) setReturn();
 
-            if(!typeInt && !containsLastReturnVoid) setReturn();
+        // this + int parameters
+        int argumentSlots = 1 + countParameters(methodroot.getObject());
+        FrameAnalyzer.Result result = frameAnalyzer.analyze(code.toByteArray(), argumentSlots, false);
+        if(result.endReachable){
+            // void method ends in a branch without return, after a split method the int method has returned
+            if(typeInt && !split) throw new IllegalStateException("can end without return");
+            if(split) genSplitReturn(); else setReturn();
+            result = frameAnalyzer.analyze(code.toByteArray(), argumentSlots, false);
+        }
+        if(split) checkSplitSize(result);
 
-            byte[] code = new byte[cur];
-            codeBuffer.get(0, code, 0, code.length);
+        List<Attribut> attCode = new LinkedList<>();
+        attCode.add(codeAttribute(result));
 
-            short size = (short)(12 + cur);
-            Attribut classCode = new Attribut(codeIndex, size, maxStackSize, locals, cur, code, (short)0, null);
+        methods.get(mID).setCountAttributes((short)1);
+        methods.get(mID).setAttributes(attCode);
 
-            List<Attribut> attCode = new LinkedList<>();
-            attCode.add(classCode);
+        genSplitMethods();
+    }
 
-            int mID = getMethodsIndex(methodroot.getObject().getName());
-            methods.get(mID).setCountAttributes((short)1);
-            methods.get(mID).setAttributes(attCode);
+    //------------------------------------------------------------------------------------------------------------------
+    // METHOD SPLITTING
+
+    /**
+     * Method added for outlined code, an int expression or a run of statements,
+     * named when the first call is generated
+     */
+    private static final class SplitMethod {
+        String name;
+        final String descriptor;
+        final ASTNode expression;
+        final List<Part> body;
+        final List<STObject> parameters;
+        final List<STObject> assigned;
+        final boolean returns;
+        final int callSize;
+
+        SplitMethod(String descriptor, ASTNode expression, List<Part> body, List<STObject> parameters,
+                    List<STObject> assigned, boolean returns, int callSize) {
+            this.descriptor = descriptor;
+            this.expression = expression;
+            this.body = body;
+            this.parameters = parameters;
+            this.assigned = assigned;
+            this.returns = returns;
+            this.callSize = callSize;
         }
     }
 
     /**
-     * find methodindex in list methods
-     * @param methodName Name of method
-     * @return index
+     * Part of a split statement chain, a statement or the call of a split method
      */
-    private int getMethodsIndex(String methodName){
-        int index = 0;
-        for (Method m: methods) {
-            if(getCPNamebyIndex(m.getNameIndex()).equals(methodName)) {
-                return index;
-            }
-            index++;
+    private static final class Part {
+        final ASTNode statement;
+        final SplitMethod method;
+        final int size;
+        final Locals locals;
+
+        Part(ASTNode statement, SplitMethod method, int size, Locals locals) {
+            this.statement = statement;
+            this.method = method;
+            this.size = size;
+            this.locals = locals;
         }
-        return 0;
     }
 
     /**
-     * Find UTF-8 entry by index
-     * @param index CP index
-     * @return string value
+     * Locals of a part of a method in slot order, the assigned ones are also used
      */
-    private String getCPNamebyIndex(short index){
-        return constantPool.get(index).getsValue();
+    private static final class Locals {
+        final TreeMap<Integer, STObject> used = new TreeMap<>();
+        final TreeMap<Integer, STObject> assigned = new TreeMap<>();
+        boolean returns;
     }
 
     /**
-     * Generate code from node
-     * @param n node
+     * generate the code of a method above maxMethodSize
+     *
+     * The plan goes bottom up and gives every node its code size. An expression that does
+     * not fit is outlined into an int method name$split<n>, runs of statements without return
+     * into void methods, and if the calls of a chain still do not fit, runs of these calls are
+     * outlined again. The locals of outlined code are the parameters of the split method, the
+     * assigned ones are returned through the fields name$<local>. A split method with a return
+     * returns 1 if the method returns and 0 at its end, the value of an int method is returned
+     * through the field name$return.
+     *
+     * @param methodroot method node
      */
-    private void analyzeNextNode(ASTNode n) {
-        containsLastReturnVoid = false;
-        if(n.getNodeClass().equals(ASTClass.ASSIGN)){
-            if(assignGlobal(n.getLeft().getName())) insertByte(InsSet.ALOAD_0.bytes);
-            analyzeNextNode(n.getRight());
-            setVar(n.getLeft().getName());
-        }
-        else if(n.getNodeClass().equals(ASTClass.VAR)){
-            loadVar(n.getName());
-        }
-        else if(n.getNodeClass().equals(ASTClass.INT)){
-            setInt(n.getConstant());
-        }
-        else if(n.getNodeClass().equals(ASTClass.PROD)){
-            callProd(n);
-        }
-        else if(n.getNodeClass().equals(ASTClass.BINOP)){
-            analyzeNextNode(n.getLeft());
-            analyzeNextNode(n.getRight());
-            setOperator(n);
-        }
-        else if(n.getNodeClass().equals(ASTClass.IF_ELSE)){
-            setIfElse(n);
-        }
-        else if(n.getNodeClass().equals(ASTClass.WHILE)){
-            setWhile(n);
+    private void genSplitCode(ASTNode methodroot){
+        splitName = methodroot.getObject().getName();
+        // all locals are assigned, so every local can be passed to a split method
+        List<STObject> locals = new ArrayList<>();
+        int prologue = 0;
+        for (STObject obj : methodScope.getObjects()) {
+            if(obj.getObjClass().equals(ObjClass.VAR) && !obj.isField()){
+                locals.add(obj);
+                prologue += 1 + slotSize(obj);
+            }
         }
-        else if(n.getNodeClass().equals(ASTClass.RETURN)){
-            if(n.getLeft() != null) analyzeNextNode(n.getLeft());
-            setReturn();
-            containsReturnNode = containsLastReturnVoid = true;
+        // a void method ends with a return, an int method that returns after a call with the value of the field
+        splitTypeInt = typeInt;
+        int limit = maxMethodSize - prologue - (typeInt ? 5 : 1);
+        groupChain(methodroot.getLink(), planChain(methodroot.getLink()), limit);
+
+        for (STObject obj : locals) {
+            setInt(0);
+            setVar(obj);
         }
-
-        if(n.getLink() != null) analyzeNextNode(n.getLink());
+        genChain(methodroot.getLink());
     }
 
     /**
-     * Generate while
-     * @param n node
+     * plan the statements of a chain, each statement fits into a split method if possible
+     * @param first first statement
+     * @return statements of the chain
      */
-    private void setWhile(ASTNode n) {
-        int posBegin = cur;
-        int posEnd;
-
-        analyzeNextNode(n.getLeft()); //BINOP without Location
-
-        //set pos-End temp to short 0
-        posEnd = cur;
-        insertShort((short)0);
-
-        analyzeNextNode(n.getRight());
-
-        //set GOTO
-        insertByte(InsSet.GOTO.bytes);
-        insertShort((short)(posBegin - (cur-1)));
-
-        //replace pos End
-        replaceShort(posEnd, (short)(cur - (posEnd-1)));
+    private List<Part> planChain(ASTNode first){
+        List<Part> parts = new ArrayList<>();
+        for (ASTNode n = first; n != null; n = n.getLink()) {
+            Locals locals = localsOf(n, n.getLink());
+            parts.add(new Part(n, null, planStatement(n, runLimit(locals.assigned.values(), locals.returns)), locals));
+        }
+        return parts;
     }
 
     /**
-     * Generate IF-ELSE
-     * @param n node
+     * outline runs of a chain until it fits, runs of split method calls are outlined again
+     * @param first first statement of the chain
+     * @param parts statements of the chain
+     * @param limit size of the chain in bytes
+     * @return size of the chain
      */
-    private void setIfElse(ASTNode n) {
-        int posElse;
-        int posEnd = 0;
-        containsReturnNode = false;
+    private int groupChain(ASTNode first, List<Part> parts, int limit){
+        splitChains.remove(first);
+        int size = sizeOf(parts);
+        boolean changed = true;
+        while (size > limit && changed) {
+            changed = false;
+            List<Part> grouped = new ArrayList<>();
+            int i = 0;
+            while (i < parts.size()) {
+                Locals run = new Locals();
+                int runSize = 0;
+                int epilogue = 0;
+                int j = i;
+                for (; j < parts.size(); j++) {
+                    Part p = parts.get(j);
+                    boolean returns = run.returns || p.locals.returns;
+                    int used = run.used.size();
+                    int stores = epilogue;
+                    for (Map.Entry<Integer, STObject> e : p.locals.used.entrySet()) {
+                        if(!run.used.containsKey(e.getKey())) used++;
+                    }
+                    for (Map.Entry<Integer, STObject> e : p.locals.assigned.entrySet()) {
+                        if(!run.assigned.containsKey(e.getKey())) stores += 4 + slotSize(e.getValue());
+                    }
+                    // return or iconst_0 ireturn
+                    if(used > SPLIT_PARAMETERS || runSize + p.size > maxMethodSize - (returns ? 2 : 1) - stores) break;
+                    run.used.putAll(p.locals.used);
+                    run.assigned.putAll(p.locals.assigned);
+                    run.returns = returns;
+                    runSize += p.size;
+                    epilogue = stores;
+                }
+                if(j == i){
+                    // a statement that does not fit into a split method
+                    grouped.add(parts.get(i++));
+                    continue;
+                }
+                int callSize = callSize(run.used.values(), run.assigned.values(), run.returns);
+                if(callSize < runSize && (j - i > 1 || parts.get(i).method == null)){
+                    grouped.add(outline(new ArrayList<>(parts.subList(i, j)), run, callSize));
+                    changed = true;
+                }else{
+                    grouped.addAll(parts.subList(i, j));
+                }
+                i = j;
+            }
+            parts = grouped;
+            size = sizeOf(parts);
+            splitChains.put(first, parts);
+        }
+        return size;
+    }
 
-        // IF
-        ASTNode ifNode = n.getLeft();
-        analyzeNextNode(ifNode.getLeft());      //BINOP without Location
+    /**
+     * plan a statement, outlines its expressions and splits its statement chains
+     * @param n statement
+     * @param limit size of the statement in bytes
+     * @return size of the statement
+     */
+    private int planStatement(ASTNode n, int limit){
+        switch (n.getNodeClass()) {
+            case WHILE -> {
+                int condition = planCondition(n.getLeft(), limit / 2);
+                return 6 + condition + groupChain(n.getRight(), planChain(n.getRight()), limit - 6 - condition);
+            }
+            case IF_ELSE -> {
+                ASTNode ifNode = n.getLeft();
+                int own = 3 + (endsWithReturn(ifNode.getRight()) ? 0 : 3);
+                int condition = planCondition(ifNode.getLeft(), limit / 2);
+                List<Part> thenParts = planChain(ifNode.getRight());
+                List<Part> elseParts = planChain(n.getRight());
+                int thenSize = sizeOf(thenParts);
+                int elseSize = sizeOf(elseParts);
+                int available = limit - own - condition;
+                if(thenSize + elseSize > available){
+                    // both branches get their share of the limit
+                    int thenLimit = (int) ((long) available * thenSize / (thenSize + elseSize));
+                    thenSize = groupChain(ifNode.getRight(), thenParts, thenLimit);
+                    elseSize = groupChain(n.getRight(), elseParts, available - thenSize);
+                }
+                return own + condition + thenSize + elseSize;
+            }
+            default -> {
+                // ASSIGN, PROD, RETURN
+                List<ASTNode> children = expressionsOf(n);
+                int size = ownSize(n, true);
+                for (ASTNode child : children) size += planExpression(child);
+                return reduce(children, size, limit);
+            }
+        }
+    }
 
-        //set pos-Else short temp to 0
-        posElse = cur;
-        insertShort((short)0);
+    /**
+     * plan the condition of a while or if, the comparison itself can not be outlined
+     * @param n comparison
+     * @param limit size of the condition in bytes
+     * @return size of the condition without the branch
+     */
+    private int planCondition(ASTNode n, int limit){
+        return reduce(expressionsOf(n), planExpression(n), limit);
+    }
 
-        analyzeNextNode(ifNode.getRight());
+    /**
+     * plan an expression bottom up, every node fits into a split method if possible
+     * @param n expression
+     * @return size of the expression
+     */
+    private int planExpression(ASTNode n){
+        ASTWalker.walk(n, new ASTVisitor() {
+            @Override
+            public void leave(ASTNode node) {
+                List<ASTNode> children = expressionsOf(node);
+                int size = ownSize(node, false);
+                for (ASTNode child : children) size += sizeOf(child);
+                // an int split method ends with ireturn
+                splitSizes.put(node, reduce(children, size, maxMethodSize - 1));
+            }
+        });
+        return sizeOf(n);
+    }
 
-        //set GOTO
-        if(!containsReturnNode){
-            insertByte(InsSet.GOTO.bytes);
-            //set pos-End short temp to 0
-            posEnd = cur;
-            insertShort((short)0);
+    /**
+     * outline the largest expressions until the node fits
+     * @param children expressions of the node
+     * @param size size of the node
+     * @param limit size of the node in bytes
+     * @return size of the node
+     */
+    private int reduce(List<ASTNode> children, int size, int limit){
+        while (size > limit) {
+            ASTNode largest = null;
+            Locals largestLocals = null;
+            int gain = 0;
+            for (ASTNode child : children) {
+                if(outlined.containsKey(child) || splitSizes.get(child) <= gain) continue;
+                Locals locals = localsOf(child, null);
+                int childGain = splitSizes.get(child) - callSize(locals.used.values(), List.of(), false);
+                if(childGain > gain && locals.used.size() <= SPLIT_PARAMETERS){
+                    largest = child;
+                    largestLocals = locals;
+                    gain = childGain;
+                }
+            }
+            if(largest == null) break;
+            outline(largest, largestLocals);
+            size -= gain;
         }
+        return size;
+    }
 
-        //ELSE
-        //replace pos-Else
-        replaceShort(posElse, (short)(cur - (posElse-1)));
-
-        analyzeNextNode(n.getRight());
+    /**
+     * outline an expression into an int split method
+     * @param expression expression
+     * @param locals locals of the expression
+     */
+    private void outline(ASTNode expression, Locals locals){
+        List<STObject> parameters = new ArrayList<>(locals.used.values());
+        String descriptor = "(" + "I".repeat(parameters.size()) + ")I";
+        outlined.put(expression, new SplitMethod(descriptor, expression, null, parameters, List.of(), false,
+                callSize(parameters, List.of(), false)));
+    }
 
-        //replace GOTO
-        if(!containsReturnNode) replaceShort(posEnd, (short)(cur - (posEnd-1)));
+    /**
+     * outline a run of statements into a void split method
+     * @param body statements and calls of the run
+     * @param locals locals of the run
+     * @param callSize size of the call
+     * @return call of the split method
+     */
+    private Part outline(List<Part> body, Locals locals, int callSize){
+        List<STObject> parameters = new ArrayList<>(locals.used.values());
+        String descriptor = "(" + "I".repeat(parameters.size()) + (locals.returns ? ")I" : ")V");
+        SplitMethod method = new SplitMethod(descriptor, null, body, parameters,
+                new ArrayList<>(locals.assigned.values()), locals.returns, callSize);
+        return new Part(null, method, callSize, locals);
     }
 
     /**
-     * set return code
+     * generate a statement chain, with its split parts if it was split
+     * @param first first statement
      */
-    private void setReturn() {
-        if(typeInt){
-            insertByte(InsSet.IRETURN.bytes);
+    private void genChain(ASTNode first){
+        List<Part> parts = splitChains.get(first);
+        if(parts == null){
+            for (ASTNode n = first; n != null; n = n.getLink()) genStatement(n);
         }else{
-            insertByte(InsSet.RETURN.bytes);
+            for (Part p : parts) genPart(p);
         }
     }
 
     /**
-     * set BINOP code
-     * @param n node
+     * @param p statement or call of a split method
      */
-    private void setOperator(ASTNode n) {
-        decreaseStack();
-        if(n.getNodeSubclass().equals(TokenType.PLUS)) {                // +
-            insertByte(InsSet.IADD.bytes);
-        }
-        else if(n.getNodeSubclass().equals(TokenType.MINUS)) {          // -
-            insertByte(InsSet.ISUB.bytes);
-        }
-        else if(n.getNodeSubclass().equals(TokenType.TIMES)) {          // *
-            insertByte(InsSet.IMUL.bytes);
-        }
-        else if(n.getNodeSubclass().equals(TokenType.SLASH)) {          // /
-            insertByte(InsSet.IDIV.bytes);
-        }
-        else if(n.getNodeSubclass().equals(TokenType.EQUAL)) {          // ==  -> !=
-            insertByte(InsSet.IFICMPNE.bytes);
-            decreaseStack();
-        }
-        else if(n.getNodeSubclass().equals(TokenType.NEQUAL)) {         // !=  -> ==
-            insertByte(InsSet.IFICMPEQ.bytes);
-            decreaseStack();
+    private void genPart(Part p){
+        if(p.method != null){
+            genSplitCall(p.method);
+        }else{
+            genStatement(p.statement);
         }
-        else if(n.getNodeSubclass().equals(TokenType.GREATER)) {        // >  -> <=
-            insertByte(InsSet.IFICMPLE.bytes);
-            decreaseStack();
+    }
+
+    /**
+     * generate a statement, the chains of a while or if-else may be split
+     * @param n statement
+     */
+    private void genStatement(ASTNode n){
+        switch (n.getNodeClass()) {
+            case WHILE -> genSplitWhile(n);
+            case IF_ELSE -> genSplitIfElse(n);
+            default -> ASTWalker.walk(n, n.getLink(), new CodeVisitor());
         }
-        else if(n.getNodeSubclass().equals(TokenType.GR_EQ)) {          // >= -> <
-            insertByte(InsSet.IFICMPLT.bytes);
-            decreaseStack();
+    }
+
+    /**
+     * generate a while, the body may be split
+     * @param n WHILE node
+     */
+    private void genSplitWhile(ASTNode n){
+        CodeBuilder.Label begin = code.newLabel();
+        CodeBuilder.Label end = code.newLabel();
+        code.mark(begin);
+        ASTWalker.walk(n.getLeft(), new CodeVisitor());
+        code.branch(getCompare(n.getLeft()), end);
+        genChain(n.getRight());
+        code.branch(InsSet.GOTO, begin);
+        code.mark(end);
+    }
+
+    /**
+     * generate an if-else, both branches may be split
+     * @param n IF_ELSE node
+     */
+    private void genSplitIfElse(ASTNode n){
+        ASTNode ifNode = n.getLeft();
+        CodeBuilder.Label elseBranch = code.newLabel();
+        CodeBuilder.Label end = code.newLabel();
+        ASTWalker.walk(ifNode.getLeft(), new CodeVisitor());
+        code.branch(getCompare(ifNode.getLeft()), elseBranch);
+        genChain(ifNode.getRight());
+        if(!endsWithReturn(ifNode.getRight())) code.branch(InsSet.GOTO, end);
+        code.mark(elseBranch);
+        genChain(n.getRight());
+        code.mark(end);
+    }
+
+    /**
+     * generate the call of a split method, the result of an outlined expression stays on the stack,
+     * the method returns if a split method with a return returns 1
+     * @param method split method
+     */
+    private void genSplitCall(SplitMethod method){
+        if(method.name == null){
+            method.name = splitName + "$split" + (++splitCount);
+            splitMethods.add(method);
         }
-        else if(n.getNodeSubclass().equals(TokenType.SMALLER)) {        // <  -> >=
-            insertByte(InsSet.IFICMPGE.bytes);
-            decreaseStack();
+        containsLastReturnVoid = false;
+        insertByte(InsSet.ALOAD_0.bytes);
+        for (STObject var : method.parameters) loadVar(var);
+        insertByte(InsSet.INVOKESPECIAL.bytes);
+        insertShort(constantPool.methodRef(className, method.name, method.descriptor));
+        if(method.returns){
+            CodeBuilder.Label next = code.newLabel();
+            code.branch(InsSet.IFEQ, next);
+            genSplitReturn();
+            code.mark(next);
         }
-        else if(n.getNodeSubclass().equals(TokenType.SM_EQ)) {          // <= -> >
-            insertByte(InsSet.IFICMPGT.bytes);
-            decreaseStack();
+        for (STObject var : method.assigned) {
+            insertByte(InsSet.ALOAD_0.bytes);
+            insertByte(InsSet.GETFIELD.bytes);
+            insertShort(splitField(var));
+            setVar(var);
         }
     }
 
     /**
-     * set INT
-     * @param z value
+     * return after a split method returned 1, a split method passes the 1 on
      */
-    private void setInt(int z){
-        byte cons = getConst(z);
-        insertByte(cons);
-        if( cons == InsSet.BIPUSH.bytes ){
-            insertByte((byte)z);
+    private void genSplitReturn(){
+        if(slots != null){
+            insertByte(InsSet.ICONST_1.bytes);
+            insertByte(InsSet.IRETURN.bytes);
+        }else if(splitTypeInt){
+            insertByte(InsSet.ALOAD_0.bytes);
+            insertByte(InsSet.GETFIELD.bytes);
+            insertShort(returnField());
+            insertByte(InsSet.IRETURN.bytes);
+        }else{
+            insertByte(InsSet.RETURN.bytes);
         }
-        increaseStack();
     }
 
     /**
-     * set VAR - save
-     * @param var name
+     * generate the split methods of the last method, calls in split methods add more
      */
-    private void setVar(String var){
-        STObject stObjectGlobal = isGlobal(var);
-        if(stObjectGlobal != null){
-            insertByte(InsSet.PUTFIELD.bytes);
-            insertShort(getRef(stObjectGlobal.getName()));
-        }else{
-            int id = getStackID(var);
-            if(id != 0){
-                insertByte(getIStore(id));
-                if(id > 3){
-                    insertByte((byte) id);
-                }
+    private void genSplitMethods(){
+        for (int n = 0; n < splitMethods.size(); n++) {
+            SplitMethod m = splitMethods.get(n);
+            code.reset();
+            slots = new IdentityHashMap<>();
+            for (int i = 0; i < m.parameters.size(); i++) slots.put(m.parameters.get(i), i + 1);
+
+            if(m.expression != null){
+                ASTWalker.walk(m.expression, new CodeVisitor(m.expression));
+                insertByte(InsSet.IRETURN.bytes);
             }else{
-                id = stackSafes.size()+1;
-                insertByte(getIStore(id));
-                if(id > 3){
-                    insertByte((byte) id);
+                splitReturns = m.returns;
+                for (Part p : m.body) genPart(p);
+                for (STObject var : m.assigned) {
+                    insertByte(InsSet.ALOAD_0.bytes);
+                    loadVar(var);
+                    insertByte(InsSet.PUTFIELD.bytes);
+                    insertShort(splitField(var));
+                }
+                if(m.returns){
+                    insertByte(InsSet.ICONST_0.bytes);
+                    insertByte(InsSet.IRETURN.bytes);
+                }else{
+                    insertByte(InsSet.RETURN.bytes);
                 }
-                stackSafes.add(new StackSafe(id, var));
+                splitReturns = false;
             }
+            slots = null;
+
+            FrameAnalyzer.Result result = frameAnalyzer.analyze(code.toByteArray(), 1 + m.parameters.size(), false);
+            checkSplitSize(result);
+            List<Attribut> attCode = new LinkedList<>();
+            attCode.add(codeAttribute(result));
+            methods.add(new Method(SPLIT_ACCESS, constantPool.utf8(m.name), constantPool.utf8(m.descriptor), (short)1, attCode));
         }
-        decreaseStack();
+        if(debugMode && splitCount > 0) logger.info("Method " + splitName + " split into " + splitCount + " methods");
+        clearSplit();
     }
 
     /**
-     * load VAR
-     * @param var name
-     */
-    private void loadVar(String var){
-        STObject stObjectFinal = isFinal(var);
-        STObject stObjectGlobal = isGlobal(var);
-        if(stObjectFinal != null){                      // Var is final
-            setInt(stObjectFinal.getIntValue());
-        }else if(stObjectGlobal != null){               // Var is global
-            insertByte(InsSet.ALOAD_0.bytes);
-            insertByte(InsSet.GETFIELD.bytes);
-            insertShort(getRef(stObjectGlobal.getName()));
-        }else{                                          // Var is local
-            byte b = getILoad(getStackID(var));
-            insertByte(b);
-            if(b == InsSet.ILOAD.bytes) insertByte((byte) getStackID(var));
+     * a split method or a method that was split must fit into maxMethodSize
+     * @param result analyzed code
+     */
+    private void checkSplitSize(FrameAnalyzer.Result result){
+        if(result.code.length > maxMethodSize){
+            throw new IllegalStateException("code of " + result.code.length + " bytes can not be split below "
+                    + maxMethodSize + " bytes");
         }
-        increaseStack();
     }
 
     /**
-     * test if VAR is final
-     * @param varName name
-     * @return Symboltableobject
+     * forget the split methods of the last method
      */
-    private STObject isFinal(String varName){
-        return findFGNode(varName, ast.getFinals().getNodes());
+    private void clearSplit(){
+        splitCount = 0;
+        splitMethods.clear();
+        outlined.clear();
+        splitChains.clear();
+        splitSizes.clear();
     }
 
     /**
-     * test if VAR is global
-     * @param varName name
-     * @return Symboltableobject
+     * field that returns a local from the split methods, added on first use
+     * @param var local
+     * @return Fieldref index
      */
-    private STObject isGlobal(String varName){
-        return findFGNode(varName, ast.getVars().getNodes());
+    private short splitField(STObject var){
+        return splitField(var.getName());
     }
 
     /**
-     * test if VAR is global
-     * @param varName name
-     * @return true/false
+     * field that returns the value of an int method from the split methods,
+     * no local can have this name
+     * @return Fieldref index
      */
-    private boolean assignGlobal(String varName){
-        return findFGNode(varName, ast.getVars().getNodes()) != null;
+    private short returnField(){
+        return splitField("return");
     }
 
     /**
-     * Find Node
-     * @param varName name
-     * @param nodes list of nodes
-     * @return Symboltableobject
+     * @param local name of a local or return
+     * @return Fieldref index
      */
-    private STObject findFGNode(String varName, List<ASTNode> nodes){
-        for (ASTNode n : nodes) {
-            if(varName.equals(n.getObject().getName())){
-                return n.getObject();
-            }
+    private short splitField(String local){
+        String name = splitName + "$" + local;
+        if(splitFields.add(name)){
+            fields.add(new Field(SPLIT_ACCESS, constantPool.utf8(name), constantPool.utf8(INT_DESCRIPTOR), (short) 0, null));
         }
-        return null;
+        return constantPool.fieldRef(className, name, INT_DESCRIPTOR);
     }
 
     /**
-     * get id from VAR Safe
-     * @param var name
-     * @return index
+     * locals of statements or of an expression, outlined expressions are not walked
+     * @param first first statement or expression
+     * @param end statement after the last one or null
+     * @return locals in slot order
      */
-    private int getStackID(String var){
-        for (StackSafe s : stackSafes) {
-            if(s.getVar().equals(var)){
-                return s.getIndex();
+    private Locals localsOf(ASTNode first, ASTNode end){
+        Locals locals = new Locals();
+        ASTWalker.walk(first, end, new ASTVisitor() {
+            @Override
+            public boolean enter(ASTNode n) {
+                SplitMethod split = outlined.get(n);
+                if(split != null){
+                    for (STObject var : split.parameters) locals.used.put(var.getSlot(), var);
+                    return false;
+                }
+                if(n.getNodeClass() == ASTClass.ASSIGN && isLocal(n.getLeft().getObject())){
+                    STObject var = n.getLeft().getObject();
+                    locals.assigned.put(var.getSlot(), var);
+                    locals.used.put(var.getSlot(), var);
+                }else if(n.getNodeClass() == ASTClass.VAR && isLocal(n.getObject())){
+                    locals.used.put(n.getObject().getSlot(), n.getObject());
+                }else if(n.getNodeClass() == ASTClass.RETURN){
+                    locals.returns = true;
+                }
+                return true;
             }
-        }
-        return 0;
+        });
+        return locals;
     }
 
-    /*
-     9: aload_0
-    10: iload_2
-    11: iload_3
-    12: invokevirtual #25                 // Method meth2:(II)I
+    /**
+     * @param n statement or expression
+     * @return expressions of the node that can be outlined
      */
+    private static List<ASTNode> expressionsOf(ASTNode n){
+        return switch (n.getNodeClass()) {
+            case BINOP -> List.of(n.getLeft(), n.getRight());
+            case PROD -> n.getArguments() == null ? List.of() : n.getArguments();
+            case ASSIGN -> List.of(n.getRight());
+            case RETURN -> n.getLeft() == null ? List.of() : List.of(n.getLeft());
+            default -> List.of();
+        };
+    }
+
     /**
-     * generate PROD code
+     * size of the instructions of a node without its children and widened branches,
+     * locals in split methods have the same or smaller slots
      * @param n node
+     * @param statement true if the node is a statement
+     * @return size in bytes
      */
-    private void callProd(ASTNode n){
-        //ALOAD
-        int countMeth = getCountMethods(n.getObject().getSymtab());
-        for (int i = 0; i < countMeth; i++){
-            insertByte(InsSet.ALOAD_0.bytes);
-        }
+    private int ownSize(ASTNode n, boolean statement){
+        return switch (n.getNodeClass()) {
+            case VAR -> loadSize(n.getObject());
+            case INT -> intSize(n.getConstant());
+            // aload_0 invokevirtual, the result of a called int method is dropped
+            case PROD -> 4 + (statement && n.getObject().getSTType().equals(STType.INT) ? 1 : 0);
+            // comparisons are the branch of the while or if
+            case BINOP -> getCompare(n) == null ? 1 : 0;
+            case ASSIGN -> n.getLeft().getObject().isField() ? 4 : slotSize(n.getLeft().getObject());
+            // aload_0 putfield iconst_1 ireturn in a split method
+            case RETURN -> splitTypeInt ? 6 : 2;
+            default -> 0;
+        };
+    }
 
-        stToByteCode(n.getObject().getSymtab());
+    /**
+     * @param n expression
+     * @return planned size, the call if outlined
+     */
+    private int sizeOf(ASTNode n){
+        SplitMethod split = outlined.get(n);
+        return split != null ? split.callSize : splitSizes.get(n);
+    }
 
-        insertByte(InsSet.INVOKEVIRTUAL.bytes);
-        insertShort(getRef(n.getName()));
+    private static int sizeOf(List<Part> parts){
+        int size = 0;
+        for (Part p : parts) size += p.size;
+        return size;
     }
 
     /**
-     * generate parameter from PROD call
-     * @param st symboltable
+     * @param used parameters of the split method
+     * @param assigned locals returned by the split method
+     * @param returns true if the split method has a return
+     * @return size of the call
      */
-    private void stToByteCode(SymbolTable st){
-        for (STObject stObject: st.getObjects()) {
-            if(stObject.getObjClass().equals(ObjClass.PROC)){
-                stToByteCode(stObject.getSymtab());
-                insertByte(InsSet.INVOKEVIRTUAL.bytes);
-                insertShort(getRef(stObject.getName()));
-            }else if(stObject.getObjClass().equals(ObjClass.CONST)){
-                setInt(Integer.parseInt(stObject.getName()));
-            }else{
-                loadVar(stObject.getName());
-            }
-        }
+    private int callSize(Collection<STObject> used, Collection<STObject> assigned, boolean returns){
+        // aload_0 iload.. invokespecial, aload_0 getfield istore per assigned local
+        int size = 4;
+        for (STObject var : used) size += slotSize(var);
+        for (STObject var : assigned) size += 4 + slotSize(var);
+        // ifeq, aload_0 getfield ireturn or iconst_1 ireturn
+        if(returns) size += 3 + (splitTypeInt ? 5 : 2);
+        return size;
+    }
+
+    /**
+     * @param assigned locals returned by the split method
+     * @param returns true if the statements contain a return
+     * @return size of the statements of a split method
+     */
+    private int runLimit(Collection<STObject> assigned, boolean returns){
+        // aload_0 iload putfield per assigned local, return or iconst_0 ireturn
+        int size = maxMethodSize - (returns ? 2 : 1);
+        for (STObject var : assigned) size -= 4 + slotSize(var);
+        return size;
+    }
+
+    private int loadSize(STObject var){
+        if(var.getObjClass().equals(ObjClass.CONST)) return intSize(var.getIntValue());
+        return var.isField() ? 4 : slotSize(var);
+    }
+
+    private static int intSize(int z){
+        return z >= 0 && z <= 5 ? 1 : 2;
+    }
+
+    private static int slotSize(STObject var){
+        return var.getSlot() <= 3 ? 1 : 2;
     }
 
     /**
-     * get reference from UTF-8
-     * @param varname name
-     * @return Index
+     * a branch needs no GOTO to the end of the if-else if its last statement is a return,
+     * a return nested in a while does not end the branch
+     * @param first first statement of the branch
+     * @return true if the last statement is a RETURN
      */
-    private short getRef(String varname){
-        return getRefKeyByNameandType(getKeyByStringValue(varname));
+    private static boolean endsWithReturn(ASTNode first){
+        ASTNode last = first;
+        while (last != null && last.getLink() != null) last = last.getLink();
+        return last != null && last.getNodeClass() == ASTClass.RETURN;
+    }
+
+    private static boolean isLocal(STObject var){
+        return !var.isField() && !var.getObjClass().equals(ObjClass.CONST);
     }
 
     /**
-     * get reference from NameAndType
-     * @param index NameAndType index
-     * @return Index
+     * slot of a local, remapped in split methods
+     * @param var local
+     * @return slot
      */
-    private Short getRefKeyByNameandType(short index) {
-        short refindex = 0;
-        for (Map.Entry<Short,CPConstant> entry : constantPool.entrySet()) {
-            if (index == entry.getValue().getBytefield1()) {
-                refindex = entry.getKey();
+    private int slot(STObject var){
+        return slots == null ? var.getSlot() : slots.get(var);
+    }
+
+    /**
+     * Code attribute with exact max_stack, max_locals and the StackMapTable
+     * @param result analyzed code
+     * @return attribute
+     */
+    private Attribut codeAttribute(FrameAnalyzer.Result result){
+        byte[] bytes = result.code;
+        codeSize += bytes.length;
+
+        List<Attribut> attributes = null;
+        int length = 12 + bytes.length;
+        if(result.stackMapTable != null){
+            Attribut stackMapTable = new Attribut(constantPool.utf8("StackMapTable"), result.stackMapTable);
+            attributes = new LinkedList<>();
+            attributes.add(stackMapTable);
+            length += 6 + stackMapTable.getLength();
+        }
+        return new Attribut(codeIndex, length, (short) result.maxStack, (short) result.maxLocals, bytes.length, bytes,
+                (short) (attributes == null ? 0 : 1), attributes);
+    }
+
+    /**
+     * Generate code from nodes
+     *
+     * Jumps go to labels, a label is kept on the jumps stack until its position is known.
+     */
+    private class CodeVisitor implements ASTVisitor {
+
+        private final ArrayDeque<CodeBuilder.Label> jumps = new ArrayDeque<>();
+        private final ASTNode root;
+
+        CodeVisitor() {
+            this(null);
+        }
+
+        /**
+         * @param root outlined expression that is generated in its split method
+         */
+        CodeVisitor(ASTNode root) {
+            this.root = root;
+        }
+
+        @Override
+        public boolean enter(ASTNode n) {
+            containsLastReturnVoid = false;
+            SplitMethod split = n == root ? null : outlined.get(n);
+            if(split != null){
+                genSplitCall(split);
+                return false;
+            }
+            switch (n.getNodeClass()) {
+                case ASSIGN -> {
+                    if(n.getLeft().getObject().isField()){
+                        insertByte(InsSet.ALOAD_0.bytes);
+                    }
+                }
+                case VAR -> loadVar(n.getObject());
+                case INT -> setInt(n.getConstant());
+                case PROD -> {
+                    insertByte(InsSet.ALOAD_0.bytes);
+                }
+                case RETURN -> {
+                    if(splitReturns && splitTypeInt) insertByte(InsSet.ALOAD_0.bytes);
+                }
+                case WHILE -> {                                 //pos-Begin
+                    CodeBuilder.Label begin = code.newLabel();
+                    code.mark(begin);
+                    jumps.push(begin);
+                }
+                default -> { }
+            }
+            return true;
+        }
+
+        @Override
+        public void between(ASTNode n, int index) {
+            switch (n.getNodeClass()) {
+                case WHILE, IF -> {
+                    //condition false - jump to pos-End / pos-Else
+                    CodeBuilder.Label exit = code.newLabel();
+                    code.branch(getCompare(n.getLeft()), exit);
+                    jumps.push(exit);
+                }
+                case IF_ELSE -> {
+                    //ELSE
+                    CodeBuilder.Label end = jumps.pop();
+                    code.mark(jumps.pop());
+                    jumps.push(end);
+                }
+                default -> { }
+            }
+        }
+
+        @Override
+        public void leave(ASTNode n) {
+            if(n != root && outlined.containsKey(n)) return;
+            switch (n.getNodeClass()) {
+                case ASSIGN -> setVar(n.getLeft().getObject());
+                case PROD -> callProd(n);
+                case BINOP -> {
+                    // comparisons are emitted as branch by IF and WHILE
+                    if(getCompare(n) == null) setOperator(n);
+                }
+                case WHILE -> {
+                    CodeBuilder.Label end = jumps.pop();
+                    code.branch(InsSet.GOTO, jumps.pop());
+                    code.mark(end);
+                }
+                case IF -> {
+                    //set GOTO pos-End
+                    CodeBuilder.Label end = code.newLabel();
+                    if(!endsWithReturn(n.getRight())) code.branch(InsSet.GOTO, end);
+                    jumps.push(end);
+                }
+                case IF_ELSE -> code.mark(jumps.pop());
+                case RETURN -> {
+                    if(splitReturns){
+                        // the split method returns 1 and the value in the field
+                        if(splitTypeInt){
+                            insertByte(InsSet.PUTFIELD.bytes);
+                            insertShort(returnField());
+                        }
+                        insertByte(InsSet.ICONST_1.bytes);
+                        insertByte(InsSet.IRETURN.bytes);
+                    }else{
+                        setReturn();
+                    }
+                    containsLastReturnVoid = true;
+                }
+                default -> { }
             }
         }
-        for (Map.Entry<Short,CPConstant> entry : constantPool.entrySet()) {
-            if (refindex == entry.getValue().getBytefield2()) {
-                refindex = entry.getKey();
+
+        @Override
+        public void endStatement(ASTNode n) {
+            // the result of a called int method is dropped
+            if(n != root && n.getNodeClass() == ASTClass.PROD && n.getObject().getSTType().equals(STType.INT)){
+                insertByte(InsSet.POP.bytes);
             }
         }
-        return refindex;
     }
 
     /**
-     * get method count
-     * @param st symboltable
-     * @return count
+     * set return code
      */
-    private int getCountMethods(SymbolTable st){
-        countMethods = 1;
-        getObjects(st);
-        return countMethods;
+    private void setReturn() {
+        if(typeInt){
+            insertByte(InsSet.IRETURN.bytes);
+        }else{
+            insertByte(InsSet.RETURN.bytes);
+        }
     }
 
     /**
-     * iterate over objects and count methods
-     * @param st symboltable
+     * set BINOP code of an arithmetic operator
+     * @param n node
      */
-    private void getObjects(SymbolTable st){
-        for (STObject stObject: st.getObjects()) {
-            if(stObject.getObjClass().equals(ObjClass.PROC)){
-                countMethods++;
-                getObjects(stObject.getSymtab());
+    private void setOperator(ASTNode n) {
+        if(n.getNodeSubclass().equals(TokenType.PLUS)) {                // +
+            insertByte(InsSet.IADD.bytes);
+        }
+        else if(n.getNodeSubclass().equals(TokenType.MINUS)) {          // -
+            insertByte(InsSet.ISUB.bytes);
+        }
+        else if(n.getNodeSubclass().equals(TokenType.TIMES)) {          // *
+            insertByte(InsSet.IMUL.bytes);
+        }
+        else if(n.getNodeSubclass().equals(TokenType.SLASH)) {          // /
+            insertByte(InsSet.IDIV.bytes);
+        }
+    }
+
+    /**
+     * get the branch of a comparison, it jumps if the condition is false
+     * @param n BINOP node
+     * @return IFICMP instruction or null for arithmetic operators
+     */
+    private InsSet getCompare(ASTNode n) {
+        return switch (n.getNodeSubclass()) {
+            case EQUAL -> InsSet.IFICMPNE;                              // ==  -> !=
+            case NEQUAL -> InsSet.IFICMPEQ;                             // !=  -> ==
+            case GREATER -> InsSet.IFICMPLE;                            // >  -> <=
+            case GR_EQ -> InsSet.IFICMPLT;                              // >= -> <
+            case SMALLER -> InsSet.IFICMPGE;                            // <  -> >=
+            case SM_EQ -> InsSet.IFICMPGT;                              // <= -> >
+            default -> null;
+        };
+    }
+
+    /**
+     * set INT
+     * @param z value
+     */
+    private void setInt(int z){
+        byte cons = getConst(z);
+        insertByte(cons);
+        if( cons == InsSet.BIPUSH.bytes ){
+            insertByte((byte)z);
+        }
+    }
+
+    /**
+     * set VAR - save
+     * @param var binding of the variable
+     */
+    private void setVar(STObject var){
+        if(var.isField()){                              // Var is global
+            insertByte(InsSet.PUTFIELD.bytes);
+            insertShort(constantPool.fieldRef(className, var.getName(), INT_DESCRIPTOR));
+        }else{                                          // Var is local
+            int id = slot(var);
+            insertByte(getIStore(id));
+            if(id > 3){
+                insertByte((byte) id);
             }
         }
     }
 
+    /**
+     * load VAR
+     * @param var binding of the variable
+     */
+    private void loadVar(STObject var){
+        if(var.getObjClass().equals(ObjClass.CONST)){   // Var is final
+            setInt(var.getIntValue());
+            return;
+        }else if(var.isField()){                        // Var is global
+            insertByte(InsSet.ALOAD_0.bytes);
+            insertByte(InsSet.GETFIELD.bytes);
+            insertShort(constantPool.fieldRef(className, var.getName(), INT_DESCRIPTOR));
+        }else{                                          // Var is local
+            byte b = getILoad(slot(var));
+            insertByte(b);
+            if(b == InsSet.ILOAD.bytes) insertByte((byte) slot(var));
+        }
+    }
+
+    /*
+     9: aload_0
+    10: iload_2
+    11: iload_3
+    12: invokevirtual #25                 // Method meth2:(II)I
+     */
+    /**
+     * generate PROD code, aload_0 and the arguments are already on the stack
+     * @param n node
+     */
+    private void callProd(ASTNode n){
+        insertByte(InsSet.INVOKEVIRTUAL.bytes);
+        insertShort(constantPool.methodRef(className, n.getName(), getPKey(n.getObject())));
+    }
+
     /**
      * get instruction CONST
      * @param z value
@@ -1025,17 +1368,7 @@ public class ClassGenerator {
      * @param cp codepart
      */
     private void insertShort(short cp) {
-        codeBuffer.putShort(cp);
-        cur = cur + 2;
-    }
-
-    /**
-     * replace short in code
-     * @param index index
-     * @param cp codepart
-     */
-    private void replaceShort(int index, short cp) {
-        codeBuffer.putShort(index, cp);
+        code.u2(cp);
     }
 
     /**
@@ -1043,23 +1376,7 @@ public class ClassGenerator {
      * @param cp codepart
      */
     private void insertByte(byte cp) {
-        codeBuffer.put(cp);
-        cur++;
-    }
-
-    /**
-     * increase stack count and test max_stack_size
-     */
-    private void increaseStack(){
-        stackSize++;
-        if(stackSize > maxStackSize) maxStackSize = stackSize;
-    }
-
-    /**
-     * decrease stack count
-     */
-    private void decreaseStack(){
-        stackSize--;
+        code.u1(cp);
     }
 
 
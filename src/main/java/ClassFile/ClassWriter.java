@@ -2,15 +2,17 @@ package ClassFile;
 
 import AbstractSyntaxTree.AST;
 import ClassData.*;
+import Data.Diagnostic;
 import org.apache.commons.io.FileUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
-import java.io.File;
 import java.io.IOException;
-import java.util.HashMap;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -37,7 +39,7 @@ public class ClassWriter {
     private short this_class;
     private short super_class;
 
-    private HashMap<Short, CPConstant> constantPool;
+    private List<CPConstant> constantPool;
 
     private final short accessflags = 0x0001; // Public
 
@@ -57,6 +59,7 @@ public class ClassWriter {
     ByteArrayOutputStream baos = new ByteArrayOutputStream();
     DataOutputStream dos = new DataOutputStream(baos);
     private short sourcefile;
+    private short sourcefileName;
 
     //debug
     boolean debugMode;
@@ -64,7 +67,7 @@ public class ClassWriter {
     //constructor
     public ClassWriter(AST ast) {
         this.ast = ast;
-        constantPool = new HashMap<>();
+        constantPool = new ArrayList<>();
         fields = new LinkedList<>();
         methods = new LinkedList<>();
         debugMode = false;
@@ -79,18 +82,42 @@ public class ClassWriter {
      * generate .class file
      */
     public void genClass() {
+        if (genByteArray() != null) writeByteCodeToFile();
+    }
+
+    /**
+     * generate the class file bytes without writing them
+     * @return class file, null if the code generation failed
+     */
+    public byte[] genByteArray() {
+        if (code != null) return code;
 
         //generate ConstantPool
         ClassGenerator classGenerator =  new ClassGenerator(ast);
         classGenerator.setDebugMode(debugMode);
         classGenerator.generate();
+        if (!classGenerator.getDiagnostics().isEmpty()) {
+            for (Diagnostic d : classGenerator.getDiagnostics()) logger.error(d);
+            return null;
+        }
+        return genByteArray(classGenerator);
+    }
+
+    /**
+     * generate the class file bytes from constant pool and code of a generator
+     * @param classGenerator generator, generate() was called
+     * @return class file
+     */
+    public byte[] genByteArray(ClassGenerator classGenerator) {
+        if (code != null) return code;
+
         getCPValues(classGenerator);
 
         code = genByteCode();
 
         if(debugMode)printByteCode();
 
-        writeByteCodeToFile();
+        return code;
     }
 
     /**
@@ -98,10 +125,11 @@ public class ClassWriter {
      * @param classGenerator generator
      */
     private void getCPValues(ClassGenerator classGenerator) {
-        constantPool = classGenerator.getConstantPool();
+        constantPool = classGenerator.getConstantPool().getEntries();
         this_class = classGenerator.getClassIndex();
         super_class = classGenerator.getSuperclassIndex();
         sourcefile = classGenerator.getSourcefileIndex();
+        sourcefileName = classGenerator.getSourcefileNameIndex();
         fields = classGenerator.getFields();
         methods = classGenerator.getMethods();
     }
@@ -110,9 +138,30 @@ public class ClassWriter {
      * write bytecode to file
      */
     private void writeByteCodeToFile() {
-        String filename = ast.getObject().getName() + ".class";
+        writeClassFile(ast.getObject().getName(), code);
+    }
+
+    /**
+     * write class file into the working directory
+     * @param className class name
+     * @param code class file bytes
+     */
+    public static void writeClassFile(String className, byte[] code) {
+        writeClassFile(Path.of(""), className, code);
+    }
+
+    /**
+     * write class file into a directory
+     * @param directory output directory
+     * @param className class name
+     * @param code class file bytes
+     */
+    public static void writeClassFile(Path directory, String className, byte[] code) {
+        String filename = className + ".class";
         try {
-            FileUtils.writeByteArrayToFile(new File(filename), code);
+            // replace, the old file may be a hard link into the build cache
+            Files.deleteIfExists(directory.resolve(filename));
+            FileUtils.writeByteArrayToFile(directory.resolve(filename).toFile(), code);
             logger.info("Bytecode written to file: "+ filename );
         } catch (IOException e) {
             e.printStackTrace();
@@ -168,7 +217,7 @@ public class ClassWriter {
      * generate bytecode from Constantpool
      */
     private void genByteCodeFromCP(){
-        for (CPConstant c: constantPool.values()) {
+        for (CPConstant c: constantPool) {
             byte type = c.getType();
             /*
                 u1 tag
@@ -290,6 +339,11 @@ public class ClassWriter {
                         for (Attribut attribut: codeAtt.getAttributes()) {
                             insertShort(attribut.getNameIndex());
                             insertInt(attribut.getLength());
+                            if(attribut.getInfo() != null){
+                                // https://docs.oracle.com/javase/specs/jvms/se15/html/jvms-4.html#jvms-4.7.4
+                                insertByteArray(attribut.getInfo());
+                                continue;
+                            }
                             insertShort(attribut.getCountAttributes());
 
                             if(attribut.getAttributes() != null ) {
@@ -323,7 +377,7 @@ public class ClassWriter {
         insertShort((short) 1);
         insertShort(sourcefile);
         insertInt(2);
-        insertShort((short)(sourcefile + 1));
+        insertShort(sourcefileName);
     }
 
 
@@ -0,0 +1,234 @@
+package ClassFile;
+
+import ClassData.InsSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builder for method code
+ *
+ * Instructions are appended to a growable byte array. Branches go to labels, a label can
+ * be used before it is marked. Branches are emitted with a 16 bit offset, toByteArray
+ * widens all branches whose offset does not fit (goto to goto_w, if_icmp<cond> to the
+ * inverted if_icmp over a goto_w) and repeats until the layout is stable.
+ *
+ * https://docs.oracle.com/javase/specs/jvms/se15/html/jvms-6.html#jvms-6.5.goto_w
+ *
+ * @author Kr3b5
+ */
+public class CodeBuilder {
+
+    /** largest code_length of a method */
+    public static final int MAX_CODE_LENGTH = 65535;
+
+    private static final int BRANCH_LENGTH = 3;
+    private static final int GOTO_W_LENGTH = 5;
+
+    /**
+     * Position in the code, marked once
+     */
+    public static final class Label {
+        private int position = -1;
+    }
+
+    /**
+     * Branch instruction
+     */
+    private static final class Branch {
+        final int position;
+        final byte opcode;
+        final Label target;
+        boolean wide;
+
+        Branch(int position, byte opcode, Label target) {
+            this.position = position;
+            this.opcode = opcode;
+            this.target = target;
+        }
+
+        int extra() {
+            if (!wide) return 0;
+            return opcode == InsSet.GOTO.bytes ? GOTO_W_LENGTH - BRANCH_LENGTH : GOTO_W_LENGTH;
+        }
+    }
+
+    private byte[] code = new byte[256];
+    private int length;
+    private final List<Branch> branches = new ArrayList<>();
+
+    /**
+     * clear the builder for the next method
+     */
+    public void reset() {
+        length = 0;
+        branches.clear();
+    }
+
+    /**
+     * @return length of the code without widened branches
+     */
+    public int size() {
+        return length;
+    }
+
+    /**
+     * append an instruction without operands
+     * @param ins instruction
+     */
+    public void op(InsSet ins) {
+        u1(ins.bytes);
+    }
+
+    /**
+     * append a byte
+     * @param b byte
+     */
+    public void u1(int b) {
+        ensure(1);
+        code[length++] = (byte) b;
+    }
+
+    /**
+     * append a short
+     * @param s short
+     */
+    public void u2(int s) {
+        ensure(2);
+        code[length++] = (byte) (s >> 8);
+        code[length++] = (byte) s;
+    }
+
+    /**
+     * @return new unmarked label
+     */
+    public Label newLabel() {
+        return new Label();
+    }
+
+    /**
+     * mark a label at the actual position
+     * @param label label
+     */
+    public void mark(Label label) {
+        if (label.position >= 0) throw new IllegalStateException("Label is already marked");
+        label.position = length;
+    }
+
+    /**
+     * append a branch
+     * @param ins GOTO, IFEQ or IFICMP<cond>
+     * @param target target label
+     */
+    public void branch(InsSet ins, Label target) {
+        if (ins != InsSet.GOTO && !isCompare(ins.bytes)) throw new IllegalArgumentException("Not a branch: " + ins);
+        branches.add(new Branch(length, ins.bytes, target));
+        u1(ins.bytes);
+        u2(0);
+    }
+
+    /**
+     * resolve the branches
+     * @return code
+     */
+    public byte[] toByteArray() {
+        for (Branch b : branches) {
+            if (b.target.position < 0) throw new IllegalStateException("Branch to an unmarked label");
+            b.wide = false;
+        }
+        int[] extra = new int[branches.size() + 1];
+        boolean changed = true;
+        while (changed) {
+            // extra[i] - bytes added by the wide branches before branch i
+            for (int i = 0; i < branches.size(); i++) extra[i + 1] = extra[i] + branches.get(i).extra();
+            changed = false;
+            for (int i = 0; i < branches.size(); i++) {
+                Branch b = branches.get(i);
+                if (b.wide) continue;
+                int offset = position(b.target.position, extra) - (b.position + extra[i]);
+                if (offset < Short.MIN_VALUE || offset > Short.MAX_VALUE) {
+                    b.wide = true;
+                    changed = true;
+                }
+            }
+        }
+        for (int i = 0; i < branches.size(); i++) extra[i + 1] = extra[i] + branches.get(i).extra();
+
+        int total = length + extra[branches.size()];
+        if (total > MAX_CODE_LENGTH) throw new IllegalStateException("Code too large: " + total + " bytes");
+
+        byte[] out = new byte[total];
+        int from = 0;
+        for (int i = 0; i < branches.size(); i++) {
+            Branch b = branches.get(i);
+            int pc = b.position + extra[i];
+            System.arraycopy(code, from, out, from + extra[i], b.position - from);
+            int offset = position(b.target.position, extra) - pc;
+            if (!b.wide) {
+                out[pc] = b.opcode;
+                putShort(out, pc + 1, offset);
+            } else if (b.opcode == InsSet.GOTO.bytes) {
+                out[pc] = InsSet.GOTO_W.bytes;
+                putInt(out, pc + 1, offset);
+            } else {
+                // inverted condition jumps over the goto_w
+                out[pc] = invert(b.opcode);
+                putShort(out, pc + 1, BRANCH_LENGTH + GOTO_W_LENGTH);
+                out[pc + BRANCH_LENGTH] = InsSet.GOTO_W.bytes;
+                putInt(out, pc + BRANCH_LENGTH + 1, offset - BRANCH_LENGTH);
+            }
+            from = b.position + BRANCH_LENGTH;
+        }
+        System.arraycopy(code, from, out, from + extra[branches.size()], length - from);
+        return out;
+    }
+
+    /**
+     * position after widening
+     * @param position position without widened branches
+     * @param extra bytes added before each branch
+     * @return position
+     */
+    private int position(int position, int[] extra) {
+        // branches are sorted by position, count the branches before the position
+        int lo = 0;
+        int hi = branches.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (branches.get(mid).position < position) lo = mid + 1;
+            else hi = mid;
+        }
+        return position + extra[lo];
+    }
+
+    /**
+     * if<cond> or if_icmp<cond> with the negated condition, the opcodes come in pairs eq/ne, lt/ge, gt/le
+     * @param opcode if<cond> or if_icmp<cond>
+     * @return negated if<cond> or if_icmp<cond>
+     */
+    static byte invert(byte opcode) {
+        return (byte) ((((opcode & 0xFF) - 0x99) ^ 1) + 0x99);
+    }
+
+    private static boolean isCompare(byte opcode) {
+        int op = opcode & 0xFF;
+        return op >= 0x99 && op <= 0xa4;
+    }
+
+    private void ensure(int n) {
+        if (length + n > code.length) code = Arrays.copyOf(code, Math.max(code.length * 2, length + n));
+    }
+
+    private static void putShort(byte[] b, int index, int value) {
+        b[index] = (byte) (value >> 8);
+        b[index + 1] = (byte) value;
+    }
+
+    private static void putInt(byte[] b, int index, int value) {
+        b[index] = (byte) (value >> 24);
+        b[index + 1] = (byte) (value >> 16);
+        b[index + 2] = (byte) (value >> 8);
+        b[index + 3] = (byte) value;
+    }
+}
@@ -0,0 +1,161 @@
+package ClassFile;
+
+import ClassData.CPConstant;
+import ClassData.CPTypes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Builder for the constant pool
+ *
+ * Entries are kept in pool order in an array list, index 1 is the first entry. Every tag
+ * has a hash map keyed by the content of the entry (UTF8 string, name index, index pair
+ * or int value), so lookup-or-add is O(1) and equal entries are only added once.
+ * Referenced entries are added before the entry that references them.
+ *
+ * https://docs.oracle.com/javase/specs/jvms/se15/html/jvms-4.html#jvms-4.4
+ *
+ * @author Kr3b5
+ */
+public class ConstantPoolBuilder {
+
+    /** largest index, constant_pool_count is a u2 */
+    private static final int MAX_INDEX = 0xFFFE;
+
+    private final List<CPConstant> entries = new ArrayList<>();
+
+    private final HashMap<String, Short> utf8s = new HashMap<>();
+    private final HashMap<Short, Short> classes = new HashMap<>();
+    private final HashMap<Integer, Short> nameAndTypes = new HashMap<>();
+    private final HashMap<Integer, Short> fieldRefs = new HashMap<>();
+    private final HashMap<Integer, Short> methodRefs = new HashMap<>();
+    private final HashMap<Integer, Short> integers = new HashMap<>();
+
+    /**
+     * UTF8 entry
+     * @param value string
+     * @return index
+     */
+    public short utf8(String value) {
+        Short index = utf8s.get(value);
+        if (index != null) return index;
+        index = add(new CPConstant((byte) CPTypes.UTF8.value, (short) value.length(), value));
+        utf8s.put(value, index);
+        return index;
+    }
+
+    /**
+     * Class entry
+     * @param name internal class name
+     * @return index
+     */
+    public short classRef(String name) {
+        short nameIndex = utf8(name);
+        Short index = classes.get(nameIndex);
+        if (index != null) return index;
+        index = add(new CPConstant((byte) CPTypes.CLASS.value, nameIndex));
+        classes.put(nameIndex, index);
+        return index;
+    }
+
+    /**
+     * NameAndType entry
+     * @param name member name
+     * @param descriptor type descriptor
+     * @return index
+     */
+    public short nameAndType(String name, String descriptor) {
+        short nameIndex = utf8(name);
+        short descriptorIndex = utf8(descriptor);
+        int key = pair(nameIndex, descriptorIndex);
+        Short index = nameAndTypes.get(key);
+        if (index != null) return index;
+        index = add(new CPConstant((byte) CPTypes.NAMEANDTYPE.value, nameIndex, descriptorIndex));
+        nameAndTypes.put(key, index);
+        return index;
+    }
+
+    /**
+     * Fieldref entry
+     * @param className internal class name
+     * @param name field name
+     * @param descriptor field descriptor
+     * @return index
+     */
+    public short fieldRef(String className, String name, String descriptor) {
+        return memberRef(CPTypes.FIELD, fieldRefs, className, name, descriptor);
+    }
+
+    /**
+     * Methodref entry
+     * @param className internal class name
+     * @param name method name
+     * @param descriptor method descriptor
+     * @return index
+     */
+    public short methodRef(String className, String name, String descriptor) {
+        return memberRef(CPTypes.METHOD, methodRefs, className, name, descriptor);
+    }
+
+    private short memberRef(CPTypes type, HashMap<Integer, Short> refs, String className, String name, String descriptor) {
+        short classIndex = classRef(className);
+        short nameAndTypeIndex = nameAndType(name, descriptor);
+        int key = pair(classIndex, nameAndTypeIndex);
+        Short index = refs.get(key);
+        if (index != null) return index;
+        index = add(new CPConstant((byte) type.value, classIndex, nameAndTypeIndex));
+        refs.put(key, index);
+        return index;
+    }
+
+    /**
+     * Integer entry
+     * @param value int value
+     * @return index
+     */
+    public short integer(int value) {
+        Short index = integers.get(value);
+        if (index != null) return index;
+        index = add(new CPConstant((byte) CPTypes.INTEGER.value, value));
+        integers.put(value, index);
+        return index;
+    }
+
+    /**
+     * Entry at an index
+     * @param index pool index
+     * @return entry
+     */
+    public CPConstant get(short index) {
+        return entries.get(Short.toUnsignedInt(index) - 1);
+    }
+
+    /**
+     * @return number of entries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return entries in pool order, the entry of index i is at i-1
+     */
+    public List<CPConstant> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    private short add(CPConstant c) {
+        if (entries.size() >= MAX_INDEX) {
+            throw new IllegalStateException("Constant pool too large: more than " + MAX_INDEX + " entries");
+        }
+        entries.add(c);
+        return (short) entries.size();
+    }
+
+    private static int pair(short first, short second) {
+        return (Short.toUnsignedInt(first) << 16) | Short.toUnsignedInt(second);
+    }
+}
@@ -0,0 +1,390 @@
+package ClassFile;
+
+import ClassData.CPConstant;
+import ClassData.InsSet;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Abstract interpreter for the generated bytecode
+ *
+ * Runs the code on verification types instead of values: every reachable instruction
+ * gets the types of its locals and its operand stack, the states of all paths into a
+ * branch target are merged (different local types become top). The result is the exact
+ * max_stack and max_locals and the StackMapTable with a frame at every branch target,
+ * so the classes pass the type checking verifier.
+ *
+ * The verifier also checks unreachable code, it is replaced by nop ... athrow with a
+ * frame of its own.
+ *
+ * https://docs.oracle.com/javase/specs/jvms/se15/html/jvms-4.html#jvms-4.7.4
+ *
+ * @author Kr3b5
+ */
+final class FrameAnalyzer {
+
+    // verification types
+    private static final byte TOP = 0;
+    private static final byte INT = 1;
+    private static final byte UNINITIALIZED_THIS = 6;
+    private static final byte THIS = 7;                 // Object_variable_info of the class
+    private static final byte THROWABLE = -7;           // Object_variable_info of java/lang/Throwable
+
+    // frame types
+    private static final int SAME_FRAME_MAX = 63;
+    private static final int SAME_LOCALS_1_STACK_ITEM = 64;
+    private static final int SAME_LOCALS_1_STACK_ITEM_EXTENDED = 247;
+    private static final int SAME_FRAME_EXTENDED = 251;
+    private static final int FULL_FRAME = 255;
+
+    private static final byte NOP = 0x00;
+    private static final byte ATHROW = (byte) 0xbf;
+
+    /**
+     * Result of the analysis
+     */
+    static final class Result {
+        /** code, unreachable parts are replaced */
+        byte[] code;
+        int maxStack;
+        int maxLocals;
+        /** attribute info of the StackMapTable, null without frames */
+        byte[] stackMapTable;
+        /** true if the code can fall off the end or jump to it */
+        boolean endReachable;
+    }
+
+    private final ConstantPoolBuilder pool;
+    private final short classIndex;
+
+    private byte[] code;
+    private int maxLocals;
+    private byte[][] locals;
+    private byte[][] stacks;
+    private BitSet targets;
+    private ArrayDeque<Integer> work;
+    private Result result;
+
+    /**
+     * @param pool constant pool of the class
+     * @param classIndex pool index of the class
+     */
+    FrameAnalyzer(ConstantPoolBuilder pool, short classIndex) {
+        this.pool = pool;
+        this.classIndex = classIndex;
+    }
+
+    /**
+     * analyze method code
+     * @param code bytecode
+     * @param argumentSlots slots of this and the int parameters
+     * @param constructor true for <init>, this is uninitialized until invokespecial
+     * @return result
+     */
+    Result analyze(byte[] code, int argumentSlots, boolean constructor) {
+        this.code = code.clone();
+        this.result = new Result();
+        this.targets = new BitSet(code.length + 1);
+        this.locals = new byte[code.length][];
+        this.stacks = new byte[code.length][];
+        this.work = new ArrayDeque<>();
+
+        // linear pass - locals and branch targets
+        maxLocals = argumentSlots;
+        for (int pc = 0; pc < code.length; pc += length(pc)) {
+            int slot = localIndex(pc);
+            if (slot >= maxLocals) maxLocals = slot + 1;
+            if (isJump(pc)) targets.set(pc + jumpOffset(pc));
+        }
+
+        byte[] entry = new byte[maxLocals];
+        entry[0] = constructor ? UNINITIALIZED_THIS : THIS;
+        Arrays.fill(entry, 1, argumentSlots, INT);
+        if (code.length > 0) merge(0, entry, new byte[0]);
+
+        while (!work.isEmpty()) {
+            execute(work.poll());
+        }
+
+        result.code = this.code;
+        result.maxLocals = maxLocals;
+        result.stackMapTable = stackMapTable(Arrays.copyOf(entry, argumentSlots));
+        return result;
+    }
+
+    /**
+     * run one instruction on the state before it and merge the state after it into the successors
+     * @param pc offset
+     */
+    private void execute(int pc) {
+        byte[] l = locals[pc].clone();
+        byte[] stack = Arrays.copyOf(stacks[pc], stacks[pc].length + 2);
+        int sp = stacks[pc].length;
+        int op = code[pc] & 0xFF;
+        boolean next = true;
+
+        switch (op) {
+            case 0x2a -> stack[sp++] = l[0];                                           // aload_0
+            case 0x03, 0x04, 0x05, 0x06, 0x07, 0x08, 0x10 -> stack[sp++] = INT;        // iconst_n, bipush
+            case 0x15, 0x1a, 0x1b, 0x1c, 0x1d -> {                                     // iload
+                if (l[localIndex(pc)] != INT) throw error(pc, "load of an unassigned local " + localIndex(pc));
+                stack[sp++] = INT;
+            }
+            case 0x36, 0x3b, 0x3c, 0x3d, 0x3e -> {                                     // istore
+                sp = pop(pc, stack, sp, INT);
+                l[localIndex(pc)] = INT;
+            }
+            case 0x57 -> sp = pop(pc, stack, sp, INT);                                 // pop
+            case 0x60, 0x64, 0x68, 0x6c -> {                                           // iadd, isub, imul, idiv
+                sp = pop(pc, stack, sp, INT);
+                sp = pop(pc, stack, sp, INT);
+                stack[sp++] = INT;
+            }
+            case 0x99 -> {                                                             // ifeq
+                sp = pop(pc, stack, sp, INT);
+                merge(pc + jumpOffset(pc), l, Arrays.copyOf(stack, sp));
+            }
+            case 0x9f, 0xa0, 0xa1, 0xa2, 0xa3, 0xa4 -> {                               // if_icmp<cond>
+                sp = pop(pc, stack, sp, INT);
+                sp = pop(pc, stack, sp, INT);
+                merge(pc + jumpOffset(pc), l, Arrays.copyOf(stack, sp));
+            }
+            case 0xa7, 0xc8 -> {                                                       // goto, goto_w
+                merge(pc + jumpOffset(pc), l, Arrays.copyOf(stack, sp));
+                next = false;
+            }
+            case 0xb4 -> {                                                             // getfield
+                sp = pop(pc, stack, sp, THIS);
+                stack[sp++] = INT;
+            }
+            case 0xb5 -> {                                                             // putfield
+                sp = pop(pc, stack, sp, INT);
+                sp = pop(pc, stack, sp, THIS);
+            }
+            case 0xb6 -> {                                                             // invokevirtual
+                String descriptor = descriptor(operand(pc));
+                int arguments = descriptor.indexOf(')') - 1;
+                for (int i = 0; i < arguments; i++) sp = pop(pc, stack, sp, INT);
+                sp = pop(pc, stack, sp, THIS);
+                if (descriptor.endsWith(")I")) stack[sp++] = INT;
+            }
+            case 0xb7 -> {                                                             // invokespecial Object.<init> or split method
+                String descriptor = descriptor(operand(pc));
+                int arguments = descriptor.indexOf(')') - 1;
+                for (int i = 0; i < arguments; i++) sp = pop(pc, stack, sp, INT);
+                if (sp == 0) throw error(pc, "stack underflow");
+                if (stack[--sp] == UNINITIALIZED_THIS) {
+                    for (int i = 0; i < l.length; i++) if (l[i] == UNINITIALIZED_THIS) l[i] = THIS;
+                }
+                if (descriptor.endsWith(")I")) stack[sp++] = INT;
+            }
+            case 0xac -> {                                                             // ireturn
+                pop(pc, stack, sp, INT);
+                next = false;
+            }
+            case 0xb1 -> next = false;                                                 // return
+            case 0x00 -> { }                                                           // nop
+            default -> throw error(pc, "unsupported opcode 0x" + Integer.toHexString(op));
+        }
+
+        result.maxStack = Math.max(result.maxStack, Math.max(sp, stacks[pc].length));
+        if (next) merge(pc + length(pc), l, Arrays.copyOf(stack, sp));
+    }
+
+    private static int pop(int pc, byte[] stack, int sp, byte type) {
+        if (sp == 0) throw error(pc, "stack underflow");
+        if (stack[sp - 1] != type) throw error(pc, "wrong type on the stack");
+        return sp - 1;
+    }
+
+    /**
+     * merge a state into the state before an instruction, the instruction is analyzed again if it changed
+     * @param pc offset of the instruction
+     * @param l locals
+     * @param stack operand stack
+     */
+    private void merge(int pc, byte[] l, byte[] stack) {
+        if (pc == code.length) {
+            result.endReachable = true;
+            return;
+        }
+        if (pc < 0 || pc > code.length) throw error(pc, "jump out of the code");
+        if (locals[pc] == null) {
+            locals[pc] = l.clone();
+            stacks[pc] = stack;
+            work.add(pc);
+            return;
+        }
+        if (!Arrays.equals(stacks[pc], stack)) throw error(pc, "different stacks at a branch target");
+        boolean changed = false;
+        byte[] target = locals[pc];
+        for (int i = 0; i < target.length; i++) {
+            if (target[i] != l[i] && target[i] != TOP) {
+                target[i] = TOP;
+                changed = true;
+            }
+        }
+        if (changed && !work.contains(pc)) work.add(pc);
+    }
+
+    /**
+     * replace unreachable code and build the frames
+     * @param entry locals of the implicit first frame
+     * @return attribute info or null
+     */
+    private byte[] stackMapTable(byte[] entry) {
+        ByteArrayOutputStream frames = new ByteArrayOutputStream();
+        int count = 0;
+        int last = -1;
+        byte[] previous = entry;
+
+        int pc = 0;
+        while (pc < code.length) {
+            if (locals[pc] == null) {
+                // unreachable range - nop ... athrow, the frame has a Throwable on the stack
+                int start = pc;
+                while (pc < code.length && locals[pc] == null) pc += length(pc);
+                Arrays.fill(code, start, pc - 1, NOP);
+                code[pc - 1] = ATHROW;
+                result.maxStack = Math.max(result.maxStack, 1);
+                writeFrame(frames, start - last - 1, previous, new byte[0], new byte[] { THROWABLE });
+                previous = new byte[0];
+                last = start;
+                count++;
+                continue;
+            }
+            if (targets.get(pc)) {
+                if (stacks[pc].length > 1) throw error(pc, "more than one stack item at a branch target");
+                byte[] l = trim(locals[pc]);
+                writeFrame(frames, pc - last - 1, previous, l, stacks[pc]);
+                previous = l;
+                last = pc;
+                count++;
+            }
+            pc += length(pc);
+        }
+        if (count == 0) return null;
+
+        byte[] body = frames.toByteArray();
+        byte[] info = new byte[body.length + 2];
+        info[0] = (byte) (count >> 8);
+        info[1] = (byte) count;
+        System.arraycopy(body, 0, info, 2, body.length);
+        return info;
+    }
+
+    /**
+     * write one frame, compressed if the locals did not change
+     * @param out frames
+     * @param delta offset delta
+     * @param previous locals of the previous frame
+     * @param l locals
+     * @param stack operand stack, at most one item
+     */
+    private void writeFrame(ByteArrayOutputStream out, int delta, byte[] previous, byte[] l, byte[] stack) {
+        boolean sameLocals = Arrays.equals(previous, l);
+        if (sameLocals && stack.length == 0) {
+            if (delta <= SAME_FRAME_MAX) {
+                out.write(delta);
+            } else {
+                out.write(SAME_FRAME_EXTENDED);
+                writeShort(out, delta);
+            }
+        } else if (sameLocals) {
+            if (delta <= SAME_FRAME_MAX) {
+                out.write(SAME_LOCALS_1_STACK_ITEM + delta);
+            } else {
+                out.write(SAME_LOCALS_1_STACK_ITEM_EXTENDED);
+                writeShort(out, delta);
+            }
+            writeType(out, stack[0]);
+        } else {
+            out.write(FULL_FRAME);
+            writeShort(out, delta);
+            writeShort(out, l.length);
+            for (byte type : l) writeType(out, type);
+            writeShort(out, stack.length);
+            for (byte type : stack) writeType(out, type);
+        }
+    }
+
+    private void writeType(ByteArrayOutputStream out, byte type) {
+        if (type == THROWABLE) {
+            out.write(THIS);
+            writeShort(out, pool.classRef("java/lang/Throwable"));
+            return;
+        }
+        out.write(type);
+        if (type == THIS) writeShort(out, classIndex);
+    }
+
+    private static void writeShort(ByteArrayOutputStream out, int value) {
+        out.write(value >> 8);
+        out.write(value);
+    }
+
+    private static byte[] trim(byte[] l) {
+        int n = l.length;
+        while (n > 0 && l[n - 1] == TOP) n--;
+        return Arrays.copyOf(l, n);
+    }
+
+    /**
+     * method descriptor of a Methodref
+     * @param index pool index
+     * @return descriptor
+     */
+    private String descriptor(short index) {
+        CPConstant methodRef = pool.get(index);
+        CPConstant nameAndType = pool.get(methodRef.getBytefield2());
+        return pool.get(nameAndType.getBytefield2()).getsValue();
+    }
+
+    // decoding
+
+    private int length(int pc) {
+        int op = code[pc] & 0xFF;
+        return switch (op) {
+            case 0x10, 0x15, 0x36 -> 2;                                                // bipush, iload, istore
+            case 0x99, 0x9f, 0xa0, 0xa1, 0xa2, 0xa3, 0xa4, 0xa7, 0xb4, 0xb5, 0xb6, 0xb7 -> 3;
+            case 0xc8 -> 5;                                                            // goto_w
+            default -> 1;
+        };
+    }
+
+    private boolean isJump(int pc) {
+        int op = code[pc] & 0xFF;
+        return op >= 0x99 && op <= 0xa7 || op == 0xc8;
+    }
+
+    private int jumpOffset(int pc) {
+        if ((code[pc] & 0xFF) == 0xc8) {
+            return ((code[pc + 1] & 0xFF) << 24) | ((code[pc + 2] & 0xFF) << 16) | ((code[pc + 3] & 0xFF) << 8) | (code[pc + 4] & 0xFF);
+        }
+        return (short) (((code[pc + 1] & 0xFF) << 8) | (code[pc + 2] & 0xFF));
+    }
+
+    private short operand(int pc) {
+        return (short) (((code[pc + 1] & 0xFF) << 8) | (code[pc + 2] & 0xFF));
+    }
+
+    /**
+     * local slot of a load or store
+     * @param pc offset
+     * @return slot or -1
+     */
+    private int localIndex(int pc) {
+        int op = code[pc];
+        if (op == InsSet.ILOAD.bytes || op == InsSet.ISTORE.bytes) return code[pc + 1] & 0xFF;
+        if (op >= InsSet.ILOAD_0.bytes && op <= InsSet.ILOAD_3.bytes) return op - InsSet.ILOAD_0.bytes;
+        if (op >= InsSet.ISTORE_0.bytes && op <= InsSet.ISTORE_3.bytes) return op - InsSet.ISTORE_0.bytes;
+        return -1;
+    }
+
+    private static IllegalStateException error(int pc, String message) {
+        return new IllegalStateException("Bytecode error at " + pc + ": " + message);
+    }
+}
@@ -0,0 +1,240 @@
+package Compiler;
+
+import Data.Diagnostic;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Batch compiler - compiles many files in parallel
+ *
+ * Every file is a task on a work stealing pool, the class files are written into an
+ * output directory. A class name may only be declared by one source of a batch, all
+ * sources of a duplicate class fail and its class file is removed.
+ *
+ * @author Kr3b5
+ */
+public class BatchCompiler {
+
+    private static final String GLOB_CHARS = "*?[{";
+
+    private final JavaSSTCompiler compiler;
+    private final int parallelism;
+    private BuildCache cache;
+
+    /**
+     * batch compiler with one worker per core
+     * @param compiler compiler
+     */
+    public BatchCompiler(JavaSSTCompiler compiler) {
+        this(compiler, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param compiler compiler
+     * @param parallelism number of workers
+     */
+    public BatchCompiler(JavaSSTCompiler compiler, int parallelism) {
+        this.compiler = compiler;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * use a build cache, unchanged sources are not compiled again
+     * @param cache cache or null
+     */
+    public void setCache(BuildCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * collect source files, directories are searched for .java files
+     * @param inputs files, directories or glob patterns
+     * @return sorted files
+     * @throws IOException Exception - directory could not be read
+     */
+    public static List<Path> collect(List<String> inputs) throws IOException {
+        TreeSet<Path> files = new TreeSet<>();
+        for (String input : inputs) {
+            int glob = indexOfGlob(input);
+            if (glob >= 0) {
+                int slash = input.lastIndexOf('/', glob);
+                Path base = Path.of(slash < 0 ? "." : input.substring(0, slash + 1));
+                PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + input);
+                try (Stream<Path> walk = Files.walk(base)) {
+                    walk.filter(Files::isRegularFile)
+                        .filter(p -> matcher.matches(slash < 0 ? base.relativize(p) : p))
+                        .forEach(files::add);
+                }
+            } else if (Files.isDirectory(Path.of(input))) {
+                try (Stream<Path> walk = Files.walk(Path.of(input))) {
+                    walk.filter(Files::isRegularFile)
+                        .filter(p -> p.toString().endsWith(".java"))
+                        .forEach(files::add);
+                }
+            } else {
+                files.add(Path.of(input));
+            }
+        }
+        return new ArrayList<>(files);
+    }
+
+    private static int indexOfGlob(String input) {
+        for (int i = 0; i < input.length(); i++) {
+            if (GLOB_CHARS.indexOf(input.charAt(i)) >= 0) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * compile files in parallel
+     * @param sources source files
+     * @param outputDir directory for the class files
+     * @return results in the order of the sources
+     * @throws IOException Exception - output directory could not be created
+     */
+    public List<CompileResult> compile(List<Path> sources, Path outputDir) throws IOException {
+        Files.createDirectories(outputDir);
+        ExecutorService pool = Executors.newWorkStealingPool(parallelism);
+        Map<String, Path> owners = new ConcurrentHashMap<>();
+        try {
+            List<Future<CompileResult>> futures = new ArrayList<>(sources.size());
+            for (Path source : sources) {
+                futures.add(pool.submit(() -> compileFile(source, outputDir, owners)));
+            }
+            List<CompileResult> results = new ArrayList<>(sources.size());
+            for (int i = 0; i < futures.size(); i++) {
+                results.add(join(futures.get(i), sources.get(i)));
+            }
+            failDuplicates(results, outputDir);
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * replace the results of sources that declare the same class by failures
+     * @param results results in source order
+     * @param outputDir directory for the class files
+     * @throws IOException Exception - class file could not be removed
+     */
+    private static void failDuplicates(List<CompileResult> results, Path outputDir) throws IOException {
+        Map<String, List<Integer>> byName = new LinkedHashMap<>();
+        for (int i = 0; i < results.size(); i++) {
+            CompileResult result = results.get(i);
+            if (result.isSuccess()) byName.computeIfAbsent(result.getClassName(), k -> new ArrayList<>()).add(i);
+        }
+        for (Map.Entry<String, List<Integer>> entry : byName.entrySet()) {
+            List<Integer> indices = entry.getValue();
+            if (indices.size() < 2) continue;
+            Files.deleteIfExists(outputDir.resolve(entry.getKey() + ".class"));
+            List<String> files = new ArrayList<>();
+            for (int i : indices) files.add(results.get(i).getFileName());
+            for (int i : indices) {
+                results.set(i, CompileResult.failed(results.get(i).getFileName(),
+                        "Class " + entry.getKey() + " is declared in several sources: " + String.join(", ", files)));
+            }
+        }
+    }
+
+    /**
+     * compile one file and write the class file
+     * @param source source file
+     * @param outputDir directory for the class files
+     * @param owners source of every written class name
+     * @return result
+     */
+    private CompileResult compileFile(Path source, Path outputDir, Map<String, Path> owners) {
+        try {
+            if (cache == null) {
+                return write(compiler.compileFile(source.toString()), source, outputDir, owners);
+            }
+            byte[] bytes = Files.readAllBytes(source);
+            long key = cache.key(bytes);
+            CompileResult cached = cache.lookup(key, source, bytes);
+            if (cached != null) return write(cached, source, outputDir, owners);
+
+            CompileResult result = write(compiler.compileFile(source.toString(), ByteBuffer.wrap(bytes)), source, outputDir, owners);
+            if (result.isSuccess()) cache.store(key, bytes, result);
+            return result;
+        } catch (IOException e) {
+            return CompileResult.failed(source.toString(), "File could not be read or written: " + e.getMessage());
+        } catch (RuntimeException e) {
+            return CompileResult.failed(source.toString(), "Internal compiler error: " + e);
+        }
+    }
+
+    /**
+     * write the class file of a successful compilation, an old file is replaced and not
+     * overwritten because it may be linked to a cache entry. Only the first source of a
+     * class name writes, duplicates are failed after the batch.
+     * @param result result
+     * @param source source file
+     * @param outputDir directory for the class files
+     * @param owners source of every written class name
+     * @return result
+     * @throws IOException Exception - class file could not be written
+     */
+    private CompileResult write(CompileResult result, Path source, Path outputDir, Map<String, Path> owners) throws IOException {
+        if (result.isSuccess() && owners.putIfAbsent(result.getClassName(), source) == null) {
+            if (cache != null && cache.place(result, outputDir)) return result;
+            CompileStats stats = result.getStats();
+            if (stats != null) stats.start();
+            Path target = outputDir.resolve(result.getClassName() + ".class");
+            Files.deleteIfExists(target);
+            Files.write(target, result.getClassFile());
+            if (stats != null) stats.end(CompileStats.Phase.WRITE);
+        }
+        return result;
+    }
+
+    private static CompileResult join(Future<CompileResult> future, Path source) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompileResult.failed(source.toString(), "Interrupted");
+        } catch (ExecutionException e) {
+            return CompileResult.failed(source.toString(), "Internal compiler error: " + e.getCause());
+        }
+    }
+
+    /**
+     * print per file summary
+     * @param results results
+     * @param outputDir directory of the class files
+     * @param out stream
+     */
+    public static void printSummary(List<CompileResult> results, Path outputDir, PrintStream out) {
+        int failed = 0;
+        for (CompileResult result : results) {
+            if (result.isSuccess()) {
+                out.println("  OK      " + result.getFileName() + " -> " + outputDir.resolve(result.getClassName() + ".class"));
+            } else {
+                failed++;
+                out.println("  FAILED  " + result.getFileName());
+                for (Diagnostic d : result.getDiagnostics()) {
+                    out.println("          " + d);
+                }
+            }
+        }
+        out.println("Compiled " + results.size() + " files: " + (results.size() - failed) + " succeeded, " + failed + " failed");
+    }
+}
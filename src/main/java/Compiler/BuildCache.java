@@ -0,0 +1,196 @@
+package Compiler;
+
+import Helper.XXHash64;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Content addressed build cache
+ *
+ * The key is the XXH64 of the source bytes, seeded with the compiler version and the
+ * options. An entry is a directory named by the key with the class file and a metadata
+ * file inside. The metadata holds the source length, a second XXH64 of the source with
+ * another seed, the class file size and the class name; a hit needs both to match, so a
+ * collision of the key is a miss. Cached class files are hard linked into the output
+ * directory (copied if the file system has no links), they are not read on a hit.
+ * Files are written to a temp file and moved into place, the metadata last, so several
+ * compilers can share a cache.
+ *
+ * Linked class files share the cache entry, they must be replaced and not written in
+ * place - ClassWriter and BatchCompiler delete the old file before writing.
+ *
+ * @author Kr3b5
+ */
+public class BuildCache {
+
+    private static final String ENTRY = "entry";
+    private static final long CHECK_SEED = 0x9E3779B97F4A7C15L;
+
+    private final Path directory;
+    private final long seed;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder sourceBytesSaved = new LongAdder();
+    private final LongAdder classBytesSaved = new LongAdder();
+
+    /**
+     * @param directory cache directory, created if missing
+     * @param compiler compiler of the cached class files
+     * @throws IOException Exception - directory could not be created
+     */
+    public BuildCache(Path directory, JavaSSTCompiler compiler) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        byte[] version = (JavaSSTCompiler.VERSION + ';' + compiler.options()).getBytes(StandardCharsets.UTF_8);
+        this.seed = XXHash64.hash(version, 0);
+    }
+
+    /**
+     * cache key of a source
+     * @param source source bytes
+     * @return key
+     */
+    public long key(byte[] source) {
+        return XXHash64.hash(source, seed);
+    }
+
+    /**
+     * find the cached class file of a source
+     * @param key cache key
+     * @param source source file
+     * @param sourceBytes source
+     * @return result or null on a miss
+     * @throws IOException Exception - entry could not be read
+     */
+    public CompileResult lookup(long key, Path source, byte[] sourceBytes) throws IOException {
+        Path entry = directory.resolve(hex(key));
+        String[] meta = readEntry(entry.resolve(ENTRY));
+        // source length, check hash, class file size, class name
+        if (meta == null || meta.length != 4
+                || !meta[0].equals(Integer.toString(sourceBytes.length))
+                || !meta[1].equals(hex(XXHash64.hash(sourceBytes, CHECK_SEED)))
+                || !Files.isRegularFile(entry.resolve(meta[3] + ".class"))) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        sourceBytesSaved.add(sourceBytes.length);
+        classBytesSaved.add(Long.parseLong(meta[2]));
+        return CompileResult.cached(source.toString(), meta[3], entry.resolve(meta[3] + ".class"));
+    }
+
+    /**
+     * link (or copy) the class file of a cache hit into the output directory
+     * @param result result
+     * @param outputDir output directory
+     * @return false if the result is not a cache hit
+     * @throws IOException Exception - output could not be written
+     */
+    public boolean place(CompileResult result, Path outputDir) throws IOException {
+        Path cached = result.getCachedFile();
+        if (cached == null) return false;
+        Path target = outputDir.resolve(cached.getFileName());
+        Files.deleteIfExists(target);
+        try {
+            Files.createLink(target, cached);
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.copy(cached, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return true;
+    }
+
+    /**
+     * add a class file
+     * @param key cache key
+     * @param sourceBytes source
+     * @param result successful compilation
+     * @throws IOException Exception - entry could not be written
+     */
+    public void store(long key, byte[] sourceBytes, CompileResult result) throws IOException {
+        Path entry = Files.createDirectories(directory.resolve(hex(key)));
+        byte[] classFile = result.getClassFile();
+        String meta = sourceBytes.length + " " + hex(XXHash64.hash(sourceBytes, CHECK_SEED)) + " "
+                + classFile.length + " " + result.getClassName();
+        writeAtomic(entry, entry.resolve(result.getClassName() + ".class"), classFile);
+        writeAtomic(entry, entry.resolve(ENTRY), meta.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * write a file through a temp file in the same directory
+     * @param dir directory
+     * @param target file
+     * @param bytes content
+     * @throws IOException Exception - file could not be written
+     */
+    private static void writeAtomic(Path dir, Path target, byte[] bytes) throws IOException {
+        Path tmp = Files.createTempFile(dir, "tmp", ".part");
+        try {
+            Files.write(tmp, bytes);
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * metadata of an entry
+     * @param file metadata file
+     * @return fields or null if the entry does not exist
+     * @throws IOException Exception - entry could not be read
+     */
+    private static String[] readEntry(Path file) throws IOException {
+        try {
+            return Files.readString(file, StandardCharsets.UTF_8).split(" ");
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private static String hex(long key) {
+        String hex = Long.toHexString(key);
+        return "0".repeat(16 - hex.length()) + hex;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return bytes of the sources that were not compiled
+     */
+    public long getSourceBytesSaved() {
+        return sourceBytesSaved.sum();
+    }
+
+    /**
+     * @return bytes of the class files that were not generated
+     */
+    public long getClassBytesSaved() {
+        return classBytesSaved.sum();
+    }
+
+    /**
+     * print statistics
+     * @param out stream
+     */
+    public void printStats(PrintStream out) {
+        out.println("Cache: " + getHits() + " hits, " + getMisses() + " misses, "
+                + getSourceBytesSaved() + " source bytes / " + getClassBytesSaved() + " class bytes saved");
+    }
+}
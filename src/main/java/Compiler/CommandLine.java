@@ -0,0 +1,181 @@
+package Compiler;
+
+import AbstractSyntaxTree.ASTPrinter;
+import ClassFile.ClassWriter;
+import Data.Diagnostic;
+import Scanner.ScanMode;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Command line of the compiler
+ *
+ * Used by the main class and by the daemon, paths are resolved against the working
+ * directory of the caller and all output goes to the given stream.
+ *
+ * @author Kr3b5
+ */
+public final class CommandLine {
+
+    private static final String STATS_TEXT = "-stats";
+    private static final String STATS_JSON = "-stats=json";
+
+    /** options of the single file mode */
+    private static final Set<String> OPTIONS = Set.of("-debug", "-dot", STATS_TEXT, STATS_JSON);
+
+    private CommandLine() {
+    }
+
+    /**
+     * run the compiler with command line arguments
+     * @param args arguments
+     * @param workingDir directory for relative paths and the output files
+     * @param out output stream
+     * @return exit code, 0 if all class files were generated
+     */
+    public static int execute(String[] args, Path workingDir, PrintStream out) {
+        if (args.length > 0 && args[0].equals("-batch")) {
+            return batch(args, workingDir, out);
+        }
+        if (args.length < 1 || !args[0].contains(".java") || !OPTIONS.containsAll(Arrays.asList(args).subList(1, args.length))) {
+            printHelp(out);
+            return 1;
+        }
+        boolean debugMode = Arrays.asList(args).contains("-debug");
+        boolean printDotMode = Arrays.asList(args).contains("-dot");
+        String statsMode = statsMode(Arrays.asList(args));
+        return compile(workingDir.resolve(args[0]), workingDir, debugMode, printDotMode, statsMode, out);
+    }
+
+    /**
+     * stats option
+     * @param args arguments
+     * @return STATS_TEXT, STATS_JSON or null
+     */
+    private static String statsMode(List<String> args) {
+        if (args.contains(STATS_JSON)) return STATS_JSON;
+        return args.contains(STATS_TEXT) ? STATS_TEXT : null;
+    }
+
+    /**
+     * print stats as table or json
+     * @param stats stats or null
+     * @param statsMode STATS_TEXT or STATS_JSON
+     * @param out output stream
+     */
+    private static void printStats(CompileStats stats, String statsMode, PrintStream out) {
+        if (stats == null) return;
+        if (statsMode.equals(STATS_JSON)) {
+            out.println(stats.toJson());
+        } else {
+            out.println("Stats:");
+            out.println(stats.toText());
+        }
+    }
+
+    /**
+     * compile one file
+     * @param source source file
+     * @param workingDir directory for the class and dot file
+     * @param debugMode print debug
+     * @param printDotMode print dot file
+     * @param statsMode STATS_TEXT, STATS_JSON or null
+     * @param out output stream
+     * @return exit code
+     */
+    private static int compile(Path source, Path workingDir, boolean debugMode, boolean printDotMode, String statsMode, PrintStream out) {
+        try {
+            CompileResult result = new JavaSSTCompiler(ScanMode.DIRECT, debugMode, statsMode != null).compileFile(source.toString());
+            if (printDotMode && result.getAst() != null) new ASTPrinter().printDot(result.getAst(), workingDir);
+
+            if (!result.isSuccess()) {
+                for (Diagnostic d : result.getDiagnostics()) out.println(d);
+                printStats(result.getStats(), statsMode, out);
+                return 1;
+            }
+            CompileStats stats = result.getStats();
+            if (stats != null) stats.start();
+            ClassWriter.writeClassFile(workingDir, result.getClassName(), result.getClassFile());
+            if (stats != null) stats.end(CompileStats.Phase.WRITE);
+            printStats(stats, statsMode, out);
+            return 0;
+        } catch (FileNotFoundException e) {
+            out.println("File not found: " + source);
+            return 1;
+        }
+    }
+
+    /**
+     * start batch compiler
+     *
+     * -batch [-debug] [-stats | -stats=json] [-cache cache-dir] output-dir (directory | glob | java-file)...
+     *
+     * @param args arguments array
+     * @param workingDir directory for relative paths
+     * @param out output stream
+     * @return exit code
+     */
+    private static int batch(String[] args, Path workingDir, PrintStream out) {
+        boolean debugMode = false;
+        String statsMode = null;
+        Path cacheDir = null;
+        List<String> inputs = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("-debug")) debugMode = true;
+            else if (args[i].equals(STATS_TEXT) || args[i].equals(STATS_JSON)) statsMode = args[i];
+            else if (args[i].equals("-cache") && i + 1 < args.length) cacheDir = workingDir.resolve(args[++i]);
+            else inputs.add(workingDir.resolve(args[i]).toString());
+        }
+        if (inputs.size() < 2) {
+            printHelp(out);
+            return 1;
+        }
+        Path outputDir = Path.of(inputs.remove(0));
+
+        try {
+            long start = System.nanoTime();
+            JavaSSTCompiler compiler = new JavaSSTCompiler(ScanMode.DIRECT, debugMode, statsMode != null);
+            BatchCompiler batchCompiler = new BatchCompiler(compiler);
+            BuildCache cache = cacheDir == null ? null : new BuildCache(cacheDir, compiler);
+            batchCompiler.setCache(cache);
+            List<CompileResult> results = batchCompiler.compile(BatchCompiler.collect(inputs), outputDir);
+            BatchCompiler.printSummary(results, outputDir, out);
+            if (cache != null) cache.printStats(out);
+            if (statsMode != null) {
+                CompileStats total = new CompileStats();
+                for (CompileResult result : results) {
+                    if (result.getStats() != null) total.add(result.getStats());
+                }
+                printStats(total, statsMode, out);
+            }
+            out.println("Time: " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            return results.stream().allMatch(CompileResult::isSuccess) ? 0 : 1;
+        } catch (IOException e) {
+            out.println("Batch compilation failed: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * print help
+     * @param out output stream
+     */
+    public static void printHelp(PrintStream out) {
+        out.println("USAGE: FSUCompile-1.0.jar <java-file> <options>");
+        out.println("       FSUCompile-1.0.jar -batch <output-dir> <directory | \"glob\" | java-file>... <options>");
+        out.println("       FSUCompile-1.0.jar -daemon [port]");
+        out.println("       FSUCompile-1.0.jar -stop [port]");
+        out.println("Valid Options:");
+        out.println("    -dot : Print Dot File");
+        out.println("    -debug: print Debug");
+        out.println("    -stats : print time and allocations of the phases (-stats=json for JSON)");
+        out.println("    -cache <dir>: build cache of the batch mode");
+    }
+}
@@ -0,0 +1,128 @@
+package Compiler;
+
+import AbstractSyntaxTree.AST;
+import Data.Diagnostic;
+import Data.Position;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Result of a compilation - class file bytes or diagnostics
+ *
+ * @author Kr3b5
+ */
+public class CompileResult {
+
+    private final String fileName;
+    private final String className;
+    private byte[] classFile;
+    private final AST ast;
+    private final List<Diagnostic> diagnostics;
+    private final CompileStats stats;
+    private Path cachedFile;
+
+    CompileResult(String fileName, String className, byte[] classFile, AST ast, List<Diagnostic> diagnostics) {
+        this(fileName, className, classFile, ast, diagnostics, null);
+    }
+
+    CompileResult(String fileName, String className, byte[] classFile, AST ast, List<Diagnostic> diagnostics, CompileStats stats) {
+        this.fileName = fileName;
+        this.className = className;
+        this.classFile = classFile;
+        this.ast = ast;
+        this.diagnostics = List.copyOf(diagnostics);
+        this.stats = stats;
+    }
+
+    /**
+     * Result of a file that could not be compiled
+     * @param fileName file
+     * @param message error message
+     * @return result
+     */
+    static CompileResult failed(String fileName, String message) {
+        Position position = new Position(new File(fileName).getName(), 0, 0);
+        return new CompileResult(fileName, null, null, null, List.of(new Diagnostic(position, message)));
+    }
+
+    /**
+     * Result of a build cache hit, the class file is read on request
+     * @param fileName file
+     * @param className class name
+     * @param cachedFile class file in the cache
+     * @return result
+     */
+    static CompileResult cached(String fileName, String className, Path cachedFile) {
+        CompileResult result = new CompileResult(fileName, className, null, null, List.of());
+        result.cachedFile = cachedFile;
+        return result;
+    }
+
+    /**
+     * @return class file in the build cache, null if the class was compiled
+     */
+    Path getCachedFile() {
+        return cachedFile;
+    }
+
+    /**
+     * @return true if the class file was generated
+     */
+    public boolean isSuccess() {
+        return classFile != null || cachedFile != null;
+    }
+
+    /**
+     * @return path of a compiled file or the name of a source in memory
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * @return class name, null if the class has no name
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * @return class file bytes, null if errors were found
+     */
+    public byte[] getClassFile() {
+        if (classFile == null && cachedFile != null) {
+            try {
+                classFile = Files.readAllBytes(cachedFile);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return classFile;
+    }
+
+    /**
+     * @return AST, null if the source has syntax errors
+     */
+    public AST getAst() {
+        return ast;
+    }
+
+    /**
+     * @return syntax or semantic errors
+     */
+    public List<Diagnostic> getDiagnostics() {
+        return diagnostics;
+    }
+
+    /**
+     * @return phase times and sizes, null if the compiler does not measure
+     */
+    public CompileStats getStats() {
+        return stats;
+    }
+}
@@ -0,0 +1,234 @@
+package Compiler;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+/**
+ * Wall time and allocated bytes per compiler phase, plus size counters
+ *
+ * A phase is measured from the previous mark to end(phase) on the compiling thread.
+ * Allocations are read from the ThreadMXBean, they are 0 if the JVM does not support it.
+ * Stats of several compilations can be added up.
+ *
+ * @author Kr3b5
+ */
+public class CompileStats {
+
+    /**
+     * compiler phases
+     */
+    public enum Phase {
+        SCAN("scan"),
+        PARSE("parse"),
+        SEMANTIC("semantic"),
+        CONSTANT_POOL("constant pool"),
+        CODE_GEN("code gen"),
+        WRITE("write");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+    /** shared instance that measures nothing */
+    static final CompileStats DISABLED = new CompileStats(false);
+
+    private final boolean enabled;
+    private final long[] nanos = new long[PHASES.length];
+    private final long[] bytes = new long[PHASES.length];
+    private long markNanos;
+    private long markBytes;
+
+    private int files;
+    private long tokens;
+    private long astNodes;
+    private long constantPoolSize;
+    private long codeSize;
+    private long classFileSize;
+
+    public CompileStats() {
+        this(true);
+    }
+
+    private CompileStats(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        try {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+                if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) return bean;
+            }
+        } catch (LinkageError e) {
+            // no com.sun.management, allocations are not reported
+        }
+        return null;
+    }
+
+    private static long allocatedBytes() {
+        return THREADS == null ? -1 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * @return true if phases are measured
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * start measuring, the next end(phase) is measured from here
+     */
+    public void start() {
+        if (!enabled) return;
+        markBytes = allocatedBytes();
+        markNanos = System.nanoTime();
+    }
+
+    /**
+     * end a phase, adds the time and allocations since the last mark and sets a new mark
+     * @param phase phase
+     */
+    public void end(Phase phase) {
+        if (!enabled) return;
+        long now = System.nanoTime();
+        long allocated = allocatedBytes();
+        nanos[phase.ordinal()] += now - markNanos;
+        bytes[phase.ordinal()] += allocated < 0 ? 0 : allocated - markBytes;
+        markNanos = now;
+        markBytes = allocated;
+    }
+
+    /**
+     * set the counters of one compilation
+     * @param tokens number of tokens
+     * @param astNodes number of AST nodes
+     * @param constantPoolSize number of constant pool entries
+     * @param codeSize bytecode bytes of all methods
+     * @param classFileSize class file bytes
+     */
+    void count(long tokens, long astNodes, long constantPoolSize, long codeSize, long classFileSize) {
+        if (!enabled) return;
+        this.files = 1;
+        this.tokens = tokens;
+        this.astNodes = astNodes;
+        this.constantPoolSize = constantPoolSize;
+        this.codeSize = codeSize;
+        this.classFileSize = classFileSize;
+    }
+
+    /**
+     * add the stats of another compilation
+     * @param other stats
+     */
+    public synchronized void add(CompileStats other) {
+        for (int i = 0; i < PHASES.length; i++) {
+            nanos[i] += other.nanos[i];
+            bytes[i] += other.bytes[i];
+        }
+        files += other.files;
+        tokens += other.tokens;
+        astNodes += other.astNodes;
+        constantPoolSize += other.constantPoolSize;
+        codeSize += other.codeSize;
+        classFileSize += other.classFileSize;
+    }
+
+    public long getNanos(Phase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    /**
+     * @param phase phase
+     * @return allocated bytes, 0 if not supported
+     */
+    public long getAllocatedBytes(Phase phase) {
+        return bytes[phase.ordinal()];
+    }
+
+    public int getFiles() {
+        return files;
+    }
+
+    public long getTokens() {
+        return tokens;
+    }
+
+    public long getAstNodes() {
+        return astNodes;
+    }
+
+    public long getConstantPoolSize() {
+        return constantPoolSize;
+    }
+
+    public long getCodeSize() {
+        return codeSize;
+    }
+
+    public long getClassFileSize() {
+        return classFileSize;
+    }
+
+    /**
+     * @return true if the JVM reports allocated bytes
+     */
+    public static boolean isAllocationSupported() {
+        return THREADS != null;
+    }
+
+    /**
+     * human readable table
+     * @return text
+     */
+    public String toText() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "  %-14s %10s %12s%n", "phase", "time ms", "alloc KB"));
+        long totalNanos = 0;
+        long totalBytes = 0;
+        for (Phase phase : PHASES) {
+            totalNanos += getNanos(phase);
+            totalBytes += getAllocatedBytes(phase);
+            row(sb, phase.getLabel(), getNanos(phase), getAllocatedBytes(phase));
+        }
+        row(sb, "total", totalNanos, totalBytes);
+        sb.append(String.format(Locale.ROOT, "  files %d, tokens %d, AST nodes %d, constant pool %d, bytecode %d bytes, class files %d bytes",
+                files, tokens, astNodes, constantPoolSize, codeSize, classFileSize));
+        return sb.toString();
+    }
+
+    private static void row(StringBuilder sb, String label, long nanos, long bytes) {
+        sb.append(String.format(Locale.ROOT, "  %-14s %10.3f %12.1f%n", label, nanos / 1e6, bytes / 1024.0));
+    }
+
+    /**
+     * JSON object, times in ns and allocations in bytes
+     * @return json
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder("{\"phases\":{");
+        for (Phase phase : PHASES) {
+            if (phase.ordinal() > 0) sb.append(',');
+            sb.append('"').append(phase.name().toLowerCase(Locale.ROOT)).append("\":{\"nanos\":")
+              .append(getNanos(phase)).append(",\"allocatedBytes\":").append(getAllocatedBytes(phase)).append('}');
+        }
+        sb.append("},\"files\":").append(files)
+          .append(",\"tokens\":").append(tokens)
+          .append(",\"astNodes\":").append(astNodes)
+          .append(",\"constantPoolSize\":").append(constantPoolSize)
+          .append(",\"codeSize\":").append(codeSize)
+          .append(",\"classFileSize\":").append(classFileSize)
+          .append('}');
+        return sb.toString();
+    }
+}
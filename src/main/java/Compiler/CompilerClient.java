@@ -0,0 +1,145 @@
+package Compiler;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+/**
+ * Thin client of the compiler daemon
+ *
+ * Forwards the arguments and the working directory to a running daemon and prints the
+ * output of the daemon, the JVM only loads this class and the JDK.
+ *
+ * Protocol, UTF-8 lines: the client sends the token of the daemon, the working
+ * directory, the number of arguments and every argument. The daemon answers with OUTPUT lines and one EXIT line
+ * with the exit code.
+ *
+ * @author Kr3b5
+ */
+public final class CompilerClient {
+
+    /** default port of the daemon on the loopback interface */
+    public static final int DEFAULT_PORT = 7171;
+
+    /** argument that stops the daemon */
+    public static final String STOP = "-stop";
+
+    static final String OUTPUT = "O ";
+    static final String EXIT = "X ";
+
+    private CompilerClient() {
+    }
+
+    /**
+     * main
+     *
+     * [-port port] arguments...
+     *
+     * @param args arguments
+     */
+    public static void main(String[] args) {
+        int port = DEFAULT_PORT;
+        if (args.length > 0 && args[0].equals("-port")) {
+            port = args.length > 1 ? parsePort(args[1]) : -1;
+            if (port < 0) {
+                System.err.println("USAGE: CompilerClient [-port <0-65535>] arguments...");
+                System.exit(2);
+            }
+            String[] rest = new String[args.length - 2];
+            System.arraycopy(args, 2, rest, 0, rest.length);
+            args = rest;
+        }
+        try {
+            System.exit(send(port, args, Path.of("").toAbsolutePath(), System.out));
+        } catch (ConnectException | NoSuchFileException e) {
+            System.err.println("Compiler daemon is not running on port " + port);
+        } catch (IOException e) {
+            System.err.println("Connection to the compiler daemon failed: " + e.getMessage());
+        }
+        System.exit(2);
+    }
+
+    /**
+     * send a compile request to the daemon
+     * @param port daemon port
+     * @param args command line arguments
+     * @param workingDir directory for relative paths and the output files
+     * @param out stream for the output of the daemon
+     * @return exit code
+     * @throws IOException Exception - daemon not reachable, no token or connection closed
+     */
+    public static int send(int port, String[] args, Path workingDir, PrintStream out) throws IOException {
+        return send(port, tokenDir(), args, workingDir, out);
+    }
+
+    /**
+     * send a compile request to the daemon
+     * @param port daemon port
+     * @param tokenDir directory of the token file of the daemon
+     * @param args command line arguments
+     * @param workingDir directory for relative paths and the output files
+     * @param out stream for the output of the daemon
+     * @return exit code
+     * @throws IOException Exception - daemon not reachable, no token or connection closed
+     */
+    public static int send(int port, Path tokenDir, String[] args, Path workingDir, PrintStream out) throws IOException {
+        String token = Files.readString(tokenFile(tokenDir, port), StandardCharsets.UTF_8);
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            PrintWriter writer = new PrintWriter(socket.getOutputStream(), false, StandardCharsets.UTF_8);
+            writer.println(token);
+            writer.println(workingDir.toAbsolutePath());
+            writer.println(args.length);
+            for (String arg : args) writer.println(arg);
+            writer.flush();
+
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(OUTPUT)) {
+                    out.println(line.substring(OUTPUT.length()));
+                } else if (line.startsWith(EXIT)) {
+                    return Integer.parseInt(line.substring(EXIT.length()));
+                }
+            }
+            throw new IOException("daemon closed the connection");
+        }
+    }
+
+    /**
+     * @return default directory of the token files, .fsucompiler in the home directory
+     */
+    public static Path tokenDir() {
+        return Path.of(System.getProperty("user.home"), ".fsucompiler");
+    }
+
+    /**
+     * @param tokenDir directory of the token files
+     * @param port daemon port
+     * @return token file of the daemon on the port
+     */
+    static Path tokenFile(Path tokenDir, int port) {
+        return tokenDir.resolve("daemon-" + port + ".token");
+    }
+
+    /**
+     * @param port port argument
+     * @return port, -1 if not a number in 0-65535
+     */
+    public static int parsePort(String port) {
+        try {
+            int p = Integer.parseInt(port);
+            return p >= 0 && p <= 65535 ? p : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package Compiler;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiler daemon - long lived JVM that serves compile requests
+ *
+ * Listens on the loopback interface only, every connection is one command line of
+ * a CompilerClient and runs on its own worker. The JIT compiled code is kept warm
+ * between the requests, every compilation has its own symbol pool.
+ *
+ * Every request starts with the token of the daemon. The token is random per start and
+ * written to a file only the user can read (0600 in a 0700 directory), so other local
+ * users can not send requests.
+ *
+ * A connection has REQUEST_TIMEOUT ms to send its request and every line is limited in
+ * length. At most MAX_WORKERS requests run at once and MAX_QUEUED wait, further
+ * connections are closed right away.
+ *
+ * @author Kr3b5
+ */
+public class CompilerDaemon {
+
+    /**
+     * The logger for this class.
+     */
+    private static final Logger logger = LogManager.getLogger(CompilerDaemon.class.getName());
+
+    /** largest number of arguments of a request */
+    private static final int MAX_ARGS = 4096;
+    /** longest token line, the token has 43 chars */
+    private static final int MAX_TOKEN_LINE = 64;
+    /** longest directory or argument line */
+    private static final int MAX_LINE = 32768;
+    /** ms a client has to send its request */
+    private static final int REQUEST_TIMEOUT = 10000;
+    /** requests that run at once */
+    private static final int MAX_WORKERS = Math.max(2, Runtime.getRuntime().availableProcessors());
+    /** requests that wait for a worker */
+    private static final int MAX_QUEUED = 64;
+
+    private final ServerSocket server;
+    private final Path tokenFile;
+    private final byte[] token;
+    private final int requestTimeout;
+    private final ThreadPoolExecutor workers = new ThreadPoolExecutor(MAX_WORKERS, MAX_WORKERS, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(MAX_QUEUED));
+    private volatile boolean running = true;
+
+    /**
+     * @param port port on the loopback interface, 0 for any free port
+     * @throws IOException Exception - port in use or token not writable
+     */
+    public CompilerDaemon(int port) throws IOException {
+        this(port, CompilerClient.tokenDir());
+    }
+
+    /**
+     * @param port port on the loopback interface, 0 for any free port
+     * @param tokenDir directory of the token file
+     * @throws IOException Exception - port in use or token not writable
+     */
+    public CompilerDaemon(int port, Path tokenDir) throws IOException {
+        this(port, tokenDir, REQUEST_TIMEOUT);
+    }
+
+    /**
+     * @param port port on the loopback interface, 0 for any free port
+     * @param tokenDir directory of the token file
+     * @param requestTimeout ms a client has to send its request
+     * @throws IOException Exception - port in use or token not writable
+     */
+    CompilerDaemon(int port, Path tokenDir, int requestTimeout) throws IOException {
+        this.requestTimeout = requestTimeout;
+        this.server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        workers.allowCoreThreadTimeOut(true);
+        try {
+            byte[] random = new byte[32];
+            new SecureRandom().nextBytes(random);
+            String text = Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+            this.token = text.getBytes(StandardCharsets.UTF_8);
+            this.tokenFile = CompilerClient.tokenFile(tokenDir, getPort());
+            writeToken(tokenDir, tokenFile, text);
+        } catch (IOException e) {
+            server.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return bound port
+     */
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * accept requests until the daemon is stopped
+     */
+    public void run() {
+        logger.info("Compiler daemon listening on port " + getPort());
+        while (running) {
+            try {
+                Socket socket = server.accept();
+                try {
+                    workers.execute(() -> handle(socket));
+                } catch (RejectedExecutionException e) {
+                    logger.warn("Too many requests, connection closed");
+                    socket.close();
+                }
+            } catch (SocketException e) {
+                // server socket closed by stop
+            } catch (IOException e) {
+                logger.error("Accept failed: " + e.getMessage());
+            }
+        }
+        workers.shutdown();
+        try {
+            Files.deleteIfExists(tokenFile);
+        } catch (IOException e) {
+            logger.error("Token file not deleted: " + e.getMessage());
+        }
+        logger.info("Compiler daemon stopped");
+    }
+
+    /**
+     * stop accepting requests, running requests are finished
+     */
+    public void stop() {
+        running = false;
+        try {
+            server.close();
+        } catch (IOException e) {
+            logger.error("Close failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * serve one request
+     * @param socket client connection
+     */
+    private void handle(Socket socket) {
+        try (socket) {
+            socket.setSoTimeout(requestTimeout);
+            InputStream reader = new BufferedInputStream(socket.getInputStream());
+            PrintWriter writer = new PrintWriter(socket.getOutputStream(), false, StandardCharsets.UTF_8);
+            String clientToken = readLine(reader, MAX_TOKEN_LINE);
+            if (clientToken == null || !MessageDigest.isEqual(token, clientToken.getBytes(StandardCharsets.UTF_8))) {
+                logger.warn("Request with an invalid token rejected");
+                reply(writer, "Invalid token of the compiler daemon", 2);
+                return;
+            }
+            String dir = readLine(reader, MAX_LINE);
+            int argCount = argCount(readLine(reader, MAX_LINE));
+            if (dir == null || argCount < 0) {
+                reply(writer, "Invalid request", 2);
+                return;
+            }
+            Path workingDir = Path.of(dir);
+            String[] args = new String[argCount];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = readLine(reader, MAX_LINE);
+                if (args[i] == null) return;
+            }
+
+            int exitCode;
+            if (args.length > 0 && args[0].equals(CompilerClient.STOP)) {
+                stop();
+                exitCode = 0;
+            } else {
+                PrintStream out = new PrintStream(new LineOutput(writer), false, StandardCharsets.UTF_8);
+                exitCode = CommandLine.execute(args, workingDir, out);
+                out.flush();
+            }
+            writer.println(CompilerClient.EXIT + exitCode);
+            writer.flush();
+        } catch (IOException | RuntimeException e) {
+            logger.error("Request failed: " + e);
+        }
+    }
+
+    /**
+     * answer a rejected request
+     * @param writer client output
+     * @param message error message
+     * @param exitCode exit code
+     */
+    private static void reply(PrintWriter writer, String message, int exitCode) {
+        writer.println(CompilerClient.OUTPUT + message);
+        writer.println(CompilerClient.EXIT + exitCode);
+        writer.flush();
+    }
+
+    /**
+     * read one line of a request without reading more than max bytes
+     * @param in client input
+     * @param max longest line in bytes
+     * @return line without the line break, null at the end of the stream
+     * @throws IOException Exception - line longer than max or read timed out
+     */
+    static String readLine(InputStream in, int max) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) return line.size() > 0 ? line.toString(StandardCharsets.UTF_8) : null;
+            if (line.size() == max) throw new IOException("Request line longer than " + max + " bytes");
+            line.write(b);
+        }
+        String text = line.toString(StandardCharsets.UTF_8);
+        return text.endsWith("\r") ? text.substring(0, text.length() - 1) : text;
+    }
+
+    /**
+     * @param line argument count line of a request
+     * @return number of arguments, -1 if invalid
+     */
+    private static int argCount(String line) {
+        if (line == null) return -1;
+        try {
+            int count = Integer.parseInt(line);
+            return count >= 0 && count <= MAX_ARGS ? count : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * write the token, only readable by the user
+     * @param dir token directory
+     * @param file token file
+     * @param token token
+     * @throws IOException Exception - directory or file not writable
+     */
+    private static void writeToken(Path dir, Path file, String token) throws IOException {
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            if (!Files.isDirectory(dir)) Files.createDirectories(dir, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+            Files.deleteIfExists(file);
+            Files.createFile(file, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } else {
+            Files.createDirectories(dir);
+        }
+        Files.writeString(file, token, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Stream that sends every line as an OUTPUT line to the client
+     */
+    private static final class LineOutput extends OutputStream {
+
+        private final PrintWriter writer;
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+        LineOutput(PrintWriter writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                writer.println(CompilerClient.OUTPUT + line.toString(StandardCharsets.UTF_8));
+                writer.flush();
+                line.reset();
+            } else if (b != '\r') {
+                line.write(b);
+            }
+        }
+
+        @Override
+        public void flush() {
+            if (line.size() > 0) write('\n');
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package Compiler;
+
+import AbstractSyntaxTree.AST;
+import AbstractSyntaxTree.ASTNode;
+import ClassFile.ClassGenerator;
+import ClassFile.ClassWriter;
+import Compiler.CompileStats.Phase;
+import Data.Diagnostic;
+import Data.TokenBuffer;
+import Helper.SemanticAnalyzer;
+import Parser.Parser;
+import Scanner.Input;
+import Scanner.ScanMode;
+import Scanner.Scanner;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Compiler API
+ *
+ * Runs scanner, parser, semantic analyzer and class generator on a source in memory and
+ * returns the class file bytes. A compiler has no mutable state, every compilation uses
+ * its own token buffer, identifier pool, tree and generator, so one instance can be used
+ * by many threads.
+ *
+ * @author Kr3b5
+ */
+public class JavaSSTCompiler {
+
+    /** compiler version, part of the build cache key - change it when the generated code changes (JavaSSTCompilerTests checks it) */
+    public static final String VERSION = "1.3";
+
+    private final ScanMode mode;
+    private final boolean debugMode;
+    private final boolean statsMode;
+    private final int maxMethodSize;
+
+    public JavaSSTCompiler() {
+        this(ScanMode.DIRECT, false);
+    }
+
+    /**
+     * @param mode scanner implementation
+     * @param debugMode debug output of analyzer and class generator
+     */
+    public JavaSSTCompiler(ScanMode mode, boolean debugMode) {
+        this(mode, debugMode, false);
+    }
+
+    /**
+     * @param mode scanner implementation
+     * @param debugMode debug output of analyzer and class generator
+     * @param statsMode measure the phases, see CompileResult.getStats
+     */
+    public JavaSSTCompiler(ScanMode mode, boolean debugMode, boolean statsMode) {
+        this(mode, debugMode, statsMode, ClassGenerator.HUGE_METHOD_LIMIT);
+    }
+
+    /**
+     * @param mode scanner implementation
+     * @param debugMode debug output of analyzer and class generator
+     * @param statsMode measure the phases, see CompileResult.getStats
+     * @param maxMethodSize methods with more bytecode are split, ClassGenerator.HUGE_METHOD_LIMIT by default
+     */
+    public JavaSSTCompiler(ScanMode mode, boolean debugMode, boolean statsMode, int maxMethodSize) {
+        if (maxMethodSize <= 0) throw new IllegalArgumentException("maxMethodSize must be positive: " + maxMethodSize);
+        this.mode = mode;
+        this.debugMode = debugMode;
+        this.statsMode = statsMode;
+        this.maxMethodSize = maxMethodSize;
+    }
+
+    /**
+     * compile source text
+     * @param fileName file name for diagnostics
+     * @param source source text
+     * @return result
+     */
+    public CompileResult compile(String fileName, CharSequence source) {
+        return compile(fileName, new Input(source));
+    }
+
+    /**
+     * compile source bytes (ISO-8859-1), the buffer position is not changed
+     * @param fileName file name for diagnostics
+     * @param source source bytes
+     * @return result
+     */
+    public CompileResult compile(String fileName, ByteBuffer source) {
+        return compile(fileName, new Input(source));
+    }
+
+    /**
+     * compile a file, the class file is not written
+     * @param filePath path java file
+     * @return result
+     * @throws FileNotFoundException Exception - file not found
+     */
+    public CompileResult compileFile(String filePath) throws FileNotFoundException {
+        return compile(filePath, new File(filePath).getName(), new Input(filePath));
+    }
+
+    /**
+     * compile the content of a file that was already read, the result is the same as compileFile
+     * @param filePath path java file
+     * @param source file content
+     * @return result
+     */
+    CompileResult compileFile(String filePath, ByteBuffer source) {
+        return compile(filePath, new File(filePath).getName(), new Input(source));
+    }
+
+    /**
+     * options that change the generated code, part of the build cache key
+     * @return options
+     */
+    String options() {
+        return "mode=" + mode + ";maxMethodSize=" + maxMethodSize;
+    }
+
+    private CompileResult compile(String fileName, Input input) {
+        return compile(fileName, fileName, input);
+    }
+
+    /**
+     * run all phases
+     * @param source file path or source name of the result
+     * @param fileName file name for diagnostics
+     * @param input source
+     * @return result
+     */
+    private CompileResult compile(String source, String fileName, Input input) {
+        CompileStats stats = statsMode ? new CompileStats() : CompileStats.DISABLED;
+        stats.start();
+
+        TokenBuffer tokens = new TokenBuffer();
+        new Scanner(input, fileName, mode).scan(tokens);
+        stats.end(Phase.SCAN);
+
+        Parser parser = new Parser(tokens);
+        List<Diagnostic> syntaxErrors = parser.parseFile();
+        AST ast = parser.getAst();
+        stats.end(Phase.PARSE);
+        String className = ast == null ? null : ast.getObject().getName();
+        if (!syntaxErrors.isEmpty()) {
+            stats.count(tokens.size(), 0, 0, 0, 0);
+            return new CompileResult(source, className, null, null, syntaxErrors, stats(stats));
+        }
+
+        SemanticAnalyzer semanticAnalyzer = new SemanticAnalyzer();
+        semanticAnalyzer.setDebugMode(debugMode);
+        boolean semanticErrors = semanticAnalyzer.analyze(ast, parser.getSymbolTable());
+        stats.end(Phase.SEMANTIC);
+        if (semanticErrors) {
+            stats.count(tokens.size(), nodeCount(stats, ast), 0, 0, 0);
+            return new CompileResult(source, className, null, ast, semanticAnalyzer.getDiagnostics(), stats(stats));
+        }
+
+        ClassGenerator classGenerator = new ClassGenerator(ast);
+        classGenerator.setDebugMode(debugMode);
+        classGenerator.setMaxMethodSize(maxMethodSize);
+        classGenerator.genConstantPool();
+        stats.end(Phase.CONSTANT_POOL);
+        classGenerator.genCode();
+        stats.end(Phase.CODE_GEN);
+        if (!classGenerator.getDiagnostics().isEmpty()) {
+            stats.count(tokens.size(), nodeCount(stats, ast), classGenerator.getConstantPool().size(), classGenerator.getCodeSize(), 0);
+            return new CompileResult(source, className, null, ast, classGenerator.getDiagnostics(), stats(stats));
+        }
+
+        ClassWriter classWriter = new ClassWriter(ast);
+        classWriter.setDebugMode(debugMode);
+        byte[] classFile = classWriter.genByteArray(classGenerator);
+        stats.end(Phase.WRITE);
+
+        stats.count(tokens.size(), nodeCount(stats, ast), classGenerator.getConstantPool().size(),
+                classGenerator.getCodeSize(), classFile.length);
+        return new CompileResult(source, className, classFile, ast, List.of(), stats(stats));
+    }
+
+    /**
+     * number of nodes of the tree, only counted for -stats
+     */
+    private static int nodeCount(CompileStats stats, AST ast) {
+        if (!stats.isEnabled()) return 0;
+        ArrayDeque<ASTNode> stack = new ArrayDeque<>();
+        stack.addAll(ast.getFinals().getNodes());
+        stack.addAll(ast.getVars().getNodes());
+        stack.addAll(ast.getMethods().getNodes());
+        BitSet seen = new BitSet();
+        while (!stack.isEmpty()) {
+            ASTNode n = stack.pop();
+            if (seen.get(n.getId())) continue;
+            seen.set(n.getId());
+            if (n.getLeft() != null) stack.push(n.getLeft());
+            if (n.getRight() != null) stack.push(n.getRight());
+            if (n.getLink() != null) stack.push(n.getLink());
+            for (ASTNode argument : n.getArguments()) stack.push(argument);
+        }
+        return seen.cardinality();
+    }
+
+    private static CompileStats stats(CompileStats stats) {
+        return stats.isEnabled() ? stats : null;
+    }
+}
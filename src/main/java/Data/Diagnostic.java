@@ -0,0 +1,30 @@
+package Data;
+
+/**
+ * Compiler diagnostic - error message at a file position
+ *
+ * @author Kr3b5
+ */
+public class Diagnostic {
+
+    private final Position position;
+    private final String message;
+
+    public Diagnostic(Position position, String message) {
+        this.position = position;
+        this.message = message;
+    }
+
+    public Position getPosition() {
+        return position;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return position.getFilename() + "(" + position.getLine() + "," + position.getColumn() + "): " + message;
+    }
+}
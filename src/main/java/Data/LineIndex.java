@@ -0,0 +1,89 @@
+package Data;
+
+import java.util.Arrays;
+
+/**
+ * Index of line start offsets
+ *
+ * The scanner adds the offset of every line start, line and column of an offset
+ * are computed by binary search only if a diagnostic needs them.
+ *
+ * @author Kr3b5
+ */
+public class LineIndex {
+
+    private int[] starts;
+    private int size;
+
+    public LineIndex() {
+        starts = new int[256];
+        reset();
+    }
+
+    /**
+     * Clear the index, line 1 starts at offset 0
+     */
+    public void reset() {
+        starts[0] = 0;
+        size = 1;
+    }
+
+    /**
+     * Add the start offset of the next line
+     *
+     * @param offset offset of the first char after a newline
+     */
+    public void add(int offset) {
+        if (size == starts.length) starts = Arrays.copyOf(starts, size * 2);
+        starts[size++] = offset;
+    }
+
+    /**
+     * Number of lines
+     *
+     * @return count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Line of an offset, the first line is 1
+     *
+     * @param offset byte offset
+     * @return line
+     */
+    public int getLine(int offset) {
+        return find(offset) + 1;
+    }
+
+    /**
+     * Column of an offset, the first char of a line has column 1
+     *
+     * @param offset byte offset
+     * @return column
+     */
+    public int getColumn(int offset) {
+        return offset - starts[find(offset)] + 1;
+    }
+
+    /**
+     * Binary search for the last line start before or at the offset
+     *
+     * @param offset byte offset
+     * @return line index (0 based)
+     */
+    private int find(int offset) {
+        int low = 0;
+        int high = size - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (starts[mid] <= offset) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+}
@@ -7,37 +7,37 @@ package Data;
  */
 public class STObject {
 
+    private final int symbol;
     private final String name;
     private final ObjClass objClass;
     private STType STType;
 
     private int intValue;
 
-
-    private STObject parameterList;
-    private STObject varList;
-
-    private STObject varDef;
-    private STObject methodDef;
+    // local variable slot of parameters and locals, 0 for fields and finals
+    private int slot;
 
     private SymbolTable symtab;
 
     //CLASS
-    public STObject(String name, ObjClass objClass, SymbolTable symtab) {
+    public STObject(int symbol, String name, ObjClass objClass, SymbolTable symtab) {
+        this.symbol = symbol;
         this.name = name;
         this.objClass = objClass;
         this.symtab = symtab;
     }
 
     // VAR & PAR
-    public STObject(String name, ObjClass objClass, STType STType) {
+    public STObject(int symbol, String name, ObjClass objClass, STType STType) {
+        this.symbol = symbol;
         this.name = name;
         this.objClass = objClass;
         this.STType = STType;
     }
 
     // CONS
-    public STObject(String name, ObjClass objClass, STType STType, int intValue) {
+    public STObject(int symbol, String name, ObjClass objClass, STType STType, int intValue) {
+        this.symbol = symbol;
         this.name = name;
         this.objClass = objClass;
         this.STType = STType;
@@ -45,23 +45,16 @@ public class STObject {
     }
 
     // METHOD
-    public STObject(String name, ObjClass objClass, STType resultType, SymbolTable symtab) {
+    public STObject(int symbol, String name, ObjClass objClass, STType resultType, SymbolTable symtab) {
+        this.symbol = symbol;
         this.name = name;
         this.objClass = objClass;
         this.STType = resultType;
         this.symtab = symtab;
     }
 
-
-    public STObject(SymbolTable symtab) {
-        this.name = null;
-        this.objClass = ObjClass.PAR;
-        this.symtab = symtab;
-    }
-
-    public STObject(String name, ObjClass objClass) {
-        this.name = name;
-        this.objClass = objClass;
+    public int getSymbol() {
+        return symbol;
     }
 
     public String getName() {
@@ -84,13 +77,31 @@ public class STObject {
         return intValue;
     }
 
+    public int getSlot() {
+        return slot;
+    }
+
+    public void setSlot(int slot) {
+        this.slot = slot;
+    }
+
+    /**
+     * Field of the class (global var), not a final, parameter or local
+     *
+     * @return true/false
+     */
+    public boolean isField() {
+        return objClass == ObjClass.VAR && slot == 0;
+    }
+
     @Override
     public String toString() {
         return "STObject{" +
-                "name='" + name + '\'' +
+                "name='" + getName() + '\'' +
                 ", objClass=" + objClass +
                 ", type=" + STType +
                 ", intValue=" + intValue +
+                ", slot=" + slot +
                 ", symtab=" + symtab +
                 '}';
     }
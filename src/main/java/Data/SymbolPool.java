@@ -0,0 +1,181 @@
+package Data;
+
+import Scanner.Input;
+
+import java.util.Arrays;
+
+/**
+ * Intern pool for identifier names
+ *
+ * Every distinct name gets a dense int id, so names are stored once and compared by id.
+ * Lookups of known names are lock free: the buckets are published through a volatile
+ * array and entries only have final fields. New names are added under the pool lock.
+ * Every compilation has its own pool (TokenBuffer.reset creates it), so the ids of a
+ * compilation start at 0 and the pool is garbage with the tree.
+ *
+ * @author Kr3b5
+ */
+public final class SymbolPool {
+
+    /** id of a missing name */
+    public static final int NONE = -1;
+
+    private static final int INITIAL_BUCKETS = 1024;
+
+    /**
+     * Bucket entry, immutable after construction
+     */
+    private static final class Entry {
+        final String name;
+        final int hash;
+        final int id;
+        final Entry next;
+
+        Entry(String name, int hash, int id, Entry next) {
+            this.name = name;
+            this.hash = hash;
+            this.id = id;
+            this.next = next;
+        }
+    }
+
+    private final Object lock = new Object();
+
+    private volatile Entry[] buckets = new Entry[INITIAL_BUCKETS];
+    private volatile String[] names = new String[INITIAL_BUCKETS];
+    private int size;
+
+    /**
+     * Intern a name
+     *
+     * @param name name
+     * @return symbol id
+     */
+    public int intern(CharSequence name) {
+        int h = hash(name);
+        int id = find(buckets, name, h);
+        if (id != NONE) return id;
+        synchronized (lock) {
+            id = find(buckets, name, h);
+            if (id != NONE) return id;
+            return add(name.toString(), h);
+        }
+    }
+
+    /**
+     * Intern a name directly from the source bytes, a string is only created for new names
+     *
+     * @param input source input
+     * @param offset byte offset
+     * @param length number of bytes
+     * @return symbol id
+     */
+    public int intern(Input input, int offset, int length) {
+        int h = 0;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + input.charAt(offset + i);
+        }
+        int id = find(buckets, input, offset, length, h);
+        if (id != NONE) return id;
+        synchronized (lock) {
+            id = find(buckets, input, offset, length, h);
+            if (id != NONE) return id;
+            return add(input.slice(offset, length), h);
+        }
+    }
+
+    /**
+     * Name of a symbol id
+     *
+     * @param id symbol id
+     * @return name or null for NONE
+     */
+    public String name(int id) {
+        if (id == NONE) return null;
+        String[] table = names;
+        String name = id < table.length ? table[id] : null;
+        if (name == null) {
+            // id was published by another thread, the array write is not yet visible
+            synchronized (lock) {
+                name = names[id];
+            }
+        }
+        return name;
+    }
+
+    /**
+     * Number of interned names
+     *
+     * @return count
+     */
+    public int size() {
+        synchronized (lock) {
+            return size;
+        }
+    }
+
+    private static int hash(CharSequence name) {
+        int h = 0;
+        for (int i = 0; i < name.length(); i++) {
+            h = 31 * h + name.charAt(i);
+        }
+        return h;
+    }
+
+    private static int index(int hash, int length) {
+        return (hash ^ (hash >>> 16)) & (length - 1);
+    }
+
+    private static int find(Entry[] table, CharSequence name, int h) {
+        for (Entry e = table[index(h, table.length)]; e != null; e = e.next) {
+            if (e.hash == h && e.name.contentEquals(name)) return e.id;
+        }
+        return NONE;
+    }
+
+    private static int find(Entry[] table, Input input, int offset, int length, int h) {
+        for (Entry e = table[index(h, table.length)]; e != null; e = e.next) {
+            if (e.hash == h && equals(e.name, input, offset, length)) return e.id;
+        }
+        return NONE;
+    }
+
+    private static boolean equals(String name, Input input, int offset, int length) {
+        if (name.length() != length) return false;
+        for (int i = 0; i < length; i++) {
+            if (name.charAt(i) != input.charAt(offset + i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Add a new name, only called with the lock held
+     */
+    private int add(String name, int h) {
+        int id = size++;
+        if (id == names.length) {
+            names = Arrays.copyOf(names, id * 2);
+        }
+        names[id] = name;
+
+        Entry[] table = buckets;
+        if (size > table.length * 3 / 4) {
+            table = rehash(table);
+        }
+        int i = index(h, table.length);
+        table[i] = new Entry(name, h, id, table[i]);
+        buckets = table;
+        return id;
+    }
+
+    private static Entry[] rehash(Entry[] table) {
+        Entry[] grown = new Entry[table.length * 2];
+        for (Entry head : table) {
+            for (Entry e = head; e != null; e = e.next) {
+                int i = index(e.hash, grown.length);
+                grown[i] = new Entry(e.name, e.hash, e.id, grown[i]);
+            }
+        }
+        return grown;
+    }
+}
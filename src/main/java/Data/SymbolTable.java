@@ -1,30 +1,43 @@
 package Data;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Symboltable
  *
+ * Scoped table, the objects are kept in declaration order (parameter order) and
+ * indexed by symbol id in an open addressing hash table.
+ *
  * @author Kr3b5
  */
 public class SymbolTable {
 
-    LinkedList<STObject> objects;
+    private static final int INITIAL_CAPACITY = 16;
+
+    List<STObject> objects;
 
     SymbolTable enclose;
 
+    // hash index, key is symbol id + 1, 0 is an empty slot
+    private int[] keys;
+    private STObject[] values;
+    private int indexed;
+
 
     public SymbolTable() {
-        this.objects = new LinkedList<>();
+        this.objects = new ArrayList<>();
+        this.keys = new int[INITIAL_CAPACITY];
+        this.values = new STObject[INITIAL_CAPACITY];
     }
 
     public SymbolTable(SymbolTable enclose) {
-        this.objects = new LinkedList<>();
+        this();
         this.enclose = enclose;
     }
 
 
-    public LinkedList<STObject> getObjects() {
+    public List<STObject> getObjects() {
         return objects;
     }
 
@@ -32,23 +45,74 @@ public class SymbolTable {
         return enclose;
     }
 
+    /**
+     * Insert an object, names must be unique in the scope
+     *
+     * @param obj object
+     * @return false if the name is already declared in this scope
+     */
     public Boolean insert(STObject obj) {
-        if(objects.contains(obj)){
+        if (obj.getSymbol() != SymbolPool.NONE && find(obj.getSymbol()) != null) {
             return false;
         }
         objects.add(obj);
+        if (obj.getSymbol() != SymbolPool.NONE) index(obj);
         return true;
     }
 
+    /**
+     * Find an object in this scope
+     *
+     * @param symbol symbol id
+     * @return object or null
+     */
+    public STObject find(int symbol){
+        int mask = keys.length - 1;
+        for (int i = hash(symbol) & mask; keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == symbol + 1) return values[i];
+        }
+        return null;
+    }
 
-    public STObject find(String name){
-        for (STObject object: objects) {
-            if(object.getName().equals(name) ){
-                return object;
-            }
+    /**
+     * Find an object in this or an enclosing scope
+     *
+     * @param symbol symbol id
+     * @return object or null
+     */
+    public STObject lookup(int symbol){
+        for (SymbolTable st = this; st != null; st = st.enclose) {
+            STObject obj = st.find(symbol);
+            if (obj != null) return obj;
         }
         return null;
     }
 
+    private void index(STObject obj) {
+        if ((indexed + 1) * 2 > keys.length) grow();
+        put(obj);
+        indexed++;
+    }
 
+    private void put(STObject obj) {
+        int mask = keys.length - 1;
+        int i = hash(obj.getSymbol()) & mask;
+        while (keys[i] != 0) i = (i + 1) & mask;
+        keys[i] = obj.getSymbol() + 1;
+        values[i] = obj;
+    }
+
+    private void grow() {
+        STObject[] old = values;
+        keys = new int[keys.length * 2];
+        values = new STObject[keys.length];
+        for (STObject obj : old) {
+            if (obj != null) put(obj);
+        }
+    }
+
+    private static int hash(int symbol) {
+        int h = symbol * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
 }
@@ -1,26 +1,47 @@
 package Data;
 
+import Scanner.Input;
+
 /**
  * Parser Token
  *
+ * A token keeps only its offset into the source. IDENT and NUMBER tokens keep the
+ * length too, the value string is created on first request. Line and column are
+ * computed from the line index when the position is requested.
+ *
  * @author Kr3b5
  */
 public class Token {
 
     private TokenType type;
-    private Position position;
+    private final String file;
+    private final LineIndex lines;
+    private final int offset;
+
+    private Input source;
+    private int length;
+    private int intValue;
 
     private String value;
 
-    public Token(TokenType type, String file, int line, int column) {
+    public Token(TokenType type, String file, LineIndex lines, int offset) {
         this.type = type;
-        this.position = new Position(file,line,column);
+        this.file = file;
+        this.lines = lines;
+        this.offset = offset;
     }
 
-    public Token(TokenType type, String file, int line, int column, String value) {
-        this.type = type;
-        this.position = new Position(file,line,column);
-        this.value = value;
+    // IDENT
+    public Token(TokenType type, String file, LineIndex lines, Input source, int offset, int length) {
+        this(type, file, lines, offset);
+        this.source = source;
+        this.length = length;
+    }
+
+    // NUMBER
+    public Token(TokenType type, String file, LineIndex lines, Input source, int offset, int length, int intValue) {
+        this(type, file, lines, source, offset, length);
+        this.intValue = intValue;
     }
 
     public TokenType getType() {
@@ -32,14 +53,25 @@ public class Token {
     }
 
     public Position getPosition() {
-        return position;
+        return new Position(file, lines.getLine(offset), lines.getColumn(offset));
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLength() {
+        return length;
     }
 
-    public void setPosition(Position position) {
-        this.position = position;
+    public int getIntValue() {
+        return intValue;
     }
 
     public String getValue() {
+        if (value == null && source != null) {
+            value = source.slice(offset, length);
+        }
         return value;
     }
 
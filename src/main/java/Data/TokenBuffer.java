@@ -0,0 +1,180 @@
+package Data;
+
+import Scanner.Input;
+
+import java.util.Arrays;
+
+/**
+ * Token stream stored in parallel primitive arrays
+ *
+ * Every token is a row of type ordinal, start offset, length and the int value of a
+ * NUMBER token. Line and column are computed from the line index of the file on request.
+ * The buffer grows on demand and can be reset and reused for the next file.
+ *
+ * @author Kr3b5
+ */
+public class TokenBuffer {
+
+    private static final TokenType[] TYPES = TokenType.values();
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /** value of a NUMBER token above Integer.MAX_VALUE */
+    public static final int OVERFLOW = -1;
+
+    private byte[] types;
+    private int[] starts;
+    private int[] lengths;
+    private int[] values;
+    private int size;
+
+    private Input source;
+    private String file;
+    private LineIndex lines;
+    private SymbolPool symbols;
+
+    public TokenBuffer() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public TokenBuffer(int capacity) {
+        capacity = Math.max(capacity, 16);
+        types = new byte[capacity];
+        starts = new int[capacity];
+        lengths = new int[capacity];
+        values = new int[capacity];
+    }
+
+    /**
+     * Clear the buffer for a new file, the arrays are kept. The file gets a new symbol pool.
+     *
+     * @param source source input
+     * @param file filename
+     * @param lines line index of the file
+     */
+    public void reset(Input source, String file, LineIndex lines) {
+        this.source = source;
+        this.file = file;
+        this.lines = lines;
+        this.symbols = new SymbolPool();
+        this.size = 0;
+    }
+
+    /**
+     * Append a token
+     *
+     * @param type token type
+     * @param start start offset
+     * @param length length in bytes
+     * @param value value of a NUMBER token or OVERFLOW
+     */
+    public void add(TokenType type, int start, int length, int value) {
+        if (size == types.length) grow();
+        types[size] = (byte) type.ordinal();
+        starts[size] = start;
+        lengths[size] = length;
+        values[size] = value;
+        size++;
+    }
+
+    /**
+     * double the capacity
+     */
+    private void grow() {
+        int capacity = types.length * 2;
+        types = Arrays.copyOf(types, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Input getSource() {
+        return source;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public LineIndex getLines() {
+        return lines;
+    }
+
+    /**
+     * @return identifier names of the file
+     */
+    public SymbolPool getSymbols() {
+        return symbols;
+    }
+
+    public TokenType getType(int index) {
+        return TYPES[types[index]];
+    }
+
+    public int getStart(int index) {
+        return starts[index];
+    }
+
+    public int getLength(int index) {
+        return lengths[index];
+    }
+
+    public int getLine(int index) {
+        return lines.getLine(starts[index]);
+    }
+
+    public int getColumn(int index) {
+        return lines.getColumn(starts[index]);
+    }
+
+    /**
+     * Value string of an IDENT or NUMBER token, identifier names come from the symbol pool
+     *
+     * @param index token index
+     * @return value or null for other tokens
+     */
+    public String getValue(int index) {
+        TokenType type = getType(index);
+        if (type == TokenType.IDENT) return symbols.name(getSymbol(index));
+        if (type != TokenType.NUMBER) return null;
+        return source.slice(starts[index], lengths[index]);
+    }
+
+    /**
+     * Intern the text of a token
+     *
+     * @param index token index
+     * @return symbol id
+     */
+    public int getSymbol(int index) {
+        return symbols.intern(source, starts[index], lengths[index]);
+    }
+
+    /**
+     * Value of a NUMBER token, parsed by the scanner
+     *
+     * @param index token index
+     * @return int value or OVERFLOW
+     */
+    public int getIntValue(int index) {
+        return values[index];
+    }
+
+    /**
+     * Create a token object for a row, only needed outside of the parser
+     *
+     * @param index token index
+     * @return token
+     */
+    public Token toToken(int index) {
+        TokenType type = getType(index);
+        return switch (type) {
+            case IDENT  -> new Token(type, file, lines, source, starts[index], lengths[index]);
+            case NUMBER -> new Token(type, file, lines, source, starts[index], lengths[index], getIntValue(index));
+            default     -> new Token(type, file, lines, starts[index]);
+        };
+    }
+}
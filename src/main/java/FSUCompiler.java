@@ -1,10 +1,9 @@
-import AbstractSyntaxTree.ASTPrinter;
-import ClassFile.ClassWriter;
-import Helper.SemanticAnalyzer;
-import Parser.Parser;
+import Compiler.CommandLine;
+import Compiler.CompilerClient;
+import Compiler.CompilerDaemon;
 
-import java.io.FileNotFoundException;
-import java.util.Arrays;
+import java.io.IOException;
+import java.nio.file.Path;
 
 /**
  * FSU Compiler
@@ -13,67 +12,62 @@ import java.util.Arrays;
  */
 public class FSUCompiler {
 
-    private static boolean debugMode;
-    private static boolean printDotMode;
-
     /**
      * main
      * @param args arguments
      */
     public static void main(String[] args) {
-        ArgCheck(args);
-        start(args[0]);
+        int exitCode;
+        boolean daemon = args.length > 0 && args[0].equals("-daemon");
+        if((daemon || args.length > 0 && args[0].equals(CompilerClient.STOP)) && port(args) < 0){
+            CommandLine.printHelp(System.out);
+            exitCode = 1;
+        } else if(daemon){
+            exitCode = daemon(port(args));
+        } else if(args.length > 0 && args[0].equals(CompilerClient.STOP)){
+            exitCode = stop(port(args));
+        } else {
+            exitCode = CommandLine.execute(args, Path.of(""), System.out);
+        }
+        if(exitCode != 0) System.exit(exitCode);
     }
 
     /**
-     * start compiler
-     * @param filepath path java file
+     * start compiler daemon, runs until -stop
+     * @param port port
+     * @return exit code
      */
-    private static void start(String filepath){
+    private static int daemon(int port){
         try {
-            Parser parser = new Parser(filepath);
-            SemanticAnalyzer semanticAnalyzer = new SemanticAnalyzer();
-            ASTPrinter printer = new ASTPrinter();
-
-            parser.parseFile();
-            if(printDotMode) printer.printDot(parser.getAst());
-
-            if(debugMode) semanticAnalyzer.setDebugMode(true);
-            boolean errorFound = semanticAnalyzer.analyze(parser.getAst(), parser.getSymbolTable());
-
-            if(!errorFound){
-                ClassWriter classWriter = new ClassWriter(parser.getAst());
-                if(debugMode) classWriter.setDebugMode(true);
-                classWriter.genClass();
-            }
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
+            new CompilerDaemon(port).run();
+            return 0;
+        } catch (IOException e) {
+            System.out.println("Compiler daemon could not be started: " + e.getMessage());
+            return 1;
         }
     }
 
     /**
-     * check arguments
-     * @param args arguments array
+     * stop compiler daemon
+     * @param port port
+     * @return exit code
      */
-    private static void ArgCheck(String[] args){
-        if(args.length < 1 || !args[0].contains(".java") || args.length > 3){
-            printHelp();
-            System.exit(1);
+    private static int stop(int port){
+        try {
+            return CompilerClient.send(port, new String[]{CompilerClient.STOP}, Path.of(""), System.out);
+        } catch (IOException e) {
+            System.out.println("Compiler daemon is not running on port " + port);
+            return 1;
         }
-
-        debugMode = Arrays.asList(args).contains("-debug");
-        printDotMode = Arrays.asList(args).contains("-dot");
     }
 
     /**
-     * print help
+     * port argument of -daemon and -stop
+     * @param args arguments array
+     * @return port, -1 if invalid
      */
-    private static void printHelp(){
-        System.out.println("USAGE: FSUCompile-1.0.jar <java-file> <options>");
-        System.out.println("Valid Options:");
-        System.out.println("    -dot : Print Dot File");
-        System.out.println("    -debug: print Debug");
+    private static int port(String[] args){
+        if(args.length > 2) return -1;
+        return args.length > 1 ? CompilerClient.parsePort(args[1]) : CompilerClient.DEFAULT_PORT;
     }
-
-
 }
@@ -4,11 +4,16 @@ import AbstractSyntaxTree.AST;
 import AbstractSyntaxTree.ASTClass;
 import AbstractSyntaxTree.ASTNode;
 import AbstractSyntaxTree.ASTNodeContainer;
+import AbstractSyntaxTree.ASTVisitor;
+import AbstractSyntaxTree.ASTWalker;
 import Data.*;
+import Parser.Grammar;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.LinkedList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 
@@ -37,13 +42,21 @@ public class SemanticAnalyzer {
 
     //globals
     private boolean errorFound = false;
-    private ASTNode bufferNode;
+    private AST ast;
+    private List<Diagnostic> diagnostics = new ArrayList<>();
     private String actualCheck;
-    private LinkedList<STObject> checkList;
 
     // DEBUG Mode
     private boolean debugMode;
 
+    /**
+     * errors of the last analyze call
+     * @return diagnostics
+     */
+    public List<Diagnostic> getDiagnostics() {
+        return diagnostics;
+    }
+
     /**
      * set debug mode
      * @param debugMode true/false
@@ -60,20 +73,20 @@ public class SemanticAnalyzer {
      */
     public boolean analyze(AST ast , SymbolTable st) {
         ASTNodeContainer methods = ast.getMethods();
+        this.ast = ast;
+        errorFound = false;
+        diagnostics = new ArrayList<>();
         for (ASTNode method : methods.getNodes()) {
             //Debug
             logMethod(method.getObject().getName());
 
-            // get all initialized vars
-            getInitVars(st.getObjects().get(0).getSymtab(), method.getObject());
-
             checkMethodReturn(method);
-            checkallNodes(method);
+            ASTWalker.walk(method.getLink(), new NodeCheck());
 
             //get init values
             actualCheck = "VarHasValue";
-            List<String> list = getInitValues(st.getObjects().get(0).getSymtab(), method.getObject());
-            checkVarValue(method, list);
+            BitSet list = getInitValues(st.getObjects().get(0).getSymtab(), method.getObject());
+            ASTWalker.walk(method.getLink(), new ValueCheck(list));
         }
         logSummary();
         return errorFound;
@@ -89,33 +102,32 @@ public class SemanticAnalyzer {
         actualCheck = "checkMethodReturn";
         if (method.getObject().getSTType().equals(STType.INT)) {
             logInfo("Check INT method for return: " + method.getObject().getName());
-            getLastLinkNode(method.getLink());
+            ASTNode last = getLastLinkNode(method.getLink());
             // if last node = IF_ELSE then both trees must end with RETURN node
-            if (bufferNode.getNodeClass().equals(ASTClass.IF_ELSE)) {
+            if (is(last, ASTClass.IF_ELSE)) {
                 logInfo("IF_ELSE node found");
-                ASTNode ifelseNode = bufferNode;
 
                 // IF Node
-                getLastLinkNode(ifelseNode.getLeft().getRight());
-                if (bufferNode.getNodeClass().equals(ASTClass.RETURN)) {
+                ASTNode ifLast = getLastLinkNode(last.getLeft().getRight());
+                if (is(ifLast, ASTClass.RETURN)) {
                     logInfo("IF node - RETURN node found");
                 } else {
-                    logError("IF node - RETURN node not found [" + "Last node: " + bufferNode.getNodeClass() + "]");
+                    logError(offset(ifLast, last), "IF node - RETURN node not found [" + "Last node: " + nodeClass(ifLast) + "]");
                     errorFound = true;
                 }
 
                 // ELSE Node
-                getLastLinkNode(ifelseNode.getRight());
-                if (bufferNode.getNodeClass().equals(ASTClass.RETURN)) {
+                ASTNode elseLast = getLastLinkNode(last.getRight());
+                if (is(elseLast, ASTClass.RETURN)) {
                     logInfo("ELSE node - RETURN node found");
                 } else {
-                    logError("ELSE node - RETURN node not found [" + "Last node: " + bufferNode.getNodeClass() + "]");
+                    logError(offset(elseLast, last), "ELSE node - RETURN node not found [" + "Last node: " + nodeClass(elseLast) + "]");
                     errorFound = true;
                 }
-            } else if (bufferNode.getNodeClass().equals(ASTClass.RETURN)) {
+            } else if (is(last, ASTClass.RETURN)) {
                 logInfo("RETURN node found");
             } else {
-                logError("RETURN node not found [" + "Last node: " + bufferNode.getNodeClass() + "]");
+                logError(offset(last, method), "RETURN node not found [" + "Last node: " + nodeClass(last) + "]");
                 errorFound = true;
             }
         }
@@ -124,47 +136,49 @@ public class SemanticAnalyzer {
 
     /**
      * get last linked node
-     * @param node node
+     * @param node first node, null for an empty chain
+     * @return last node or null
      */
-    private void getLastLinkNode(ASTNode node) {
-        if (node.getLink() == null) {
-            bufferNode = node;
-        } else {
-            getLastLinkNode(node.getLink());
-        }
+    private static ASTNode getLastLinkNode(ASTNode node) {
+        while (node != null && node.getLink() != null) node = node.getLink();
+        return node;
     }
 
-    //-------------------------------------------------------------------------------------------------------
+    private static boolean is(ASTNode node, ASTClass nodeClass) {
+        return node != null && node.getNodeClass() == nodeClass;
+    }
+
+    private static ASTClass nodeClass(ASTNode node) {
+        return node == null ? null : node.getNodeClass();
+    }
 
     /**
-     * itterate over nodes and check them
-     * @param node next node
+     * source offset of a node, of its parent for an empty chain
      */
-    private void checkallNodes(ASTNode node) {
-        //check IF & WHILE has bool condition
-        if (node.getNodeClass() != null && (node.getNodeClass().equals(ASTClass.IF) ||
-                node.getNodeClass().equals(ASTClass.WHILE))) {
-            checkIfWhileCondition(node);
-        }
-
-        //checkVarsInit
-        if (node.getNodeClass() != null && node.getNodeClass().equals(ASTClass.VAR) ){
-            checkVarInit(node);
-        }
+    private static int offset(ASTNode node, ASTNode parent) {
+        return node == null ? parent.getOffset() : node.getOffset();
+    }
 
-        //checkFinalgetAssign
-        if (node.getNodeClass() != null && node.getNodeClass().equals(ASTClass.ASSIGN) ){
-            checkAssignFinal(node.getLeft());
-        }
+    //-------------------------------------------------------------------------------------------------------
 
-        if (node.getLeft() != null) {
-            checkallNodes(node.getLeft());
-        }
-        if (node.getRight() != null) {
-            checkallNodes(node.getRight());
-        }
-        if (node.getLink() != null) {
-            checkallNodes(node.getLink());
+    /**
+     * check all nodes of a method
+     */
+    private class NodeCheck implements ASTVisitor {
+
+        @Override
+        public boolean enter(ASTNode node) {
+            switch (node.getNodeClass()) {
+                case IF, WHILE -> checkIfWhileCondition(node);      //check IF & WHILE has bool condition
+                case VAR -> checkVarInit(node);                     //checkVarsInit
+                case ASSIGN -> {                                    //checkFinalgetAssign
+                    checkAssignFinal(node.getLeft());
+                    checkVarInit(node.getLeft());
+                }
+                case PROD -> checkCall(node);                       //checkCall
+                default -> { }
+            }
+            return true;
         }
     }
 
@@ -174,11 +188,35 @@ public class SemanticAnalyzer {
      */
     private void checkVarInit(ASTNode node) {
         actualCheck = "checkVarInit";
-        if( findVar(node.getName()) ){
+        if( node.getObject() != null ){
             logInfo("Var " + node.getName() + " is initialized");
         }else{
             errorFound = true;
-            logError("Var " + node.getName() + " is not initialized!");
+            logError(node.getOffset(), "Var " + node.getName() + " is not initialized!");
+        }
+    }
+
+    /**
+     * check called method is declared and the number of arguments matches
+     * @param node PROD node
+     */
+    private void checkCall(ASTNode node) {
+        actualCheck = "checkCall";
+        STObject method = node.getObject();
+        if (method == null) {
+            errorFound = true;
+            logError(node.getOffset(), "Method " + node.getName() + " is not declared!");
+            return;
+        }
+        int parameters = 0;
+        for (STObject obj : method.getSymtab().getObjects()) {
+            if (obj.getObjClass().equals(ObjClass.PAR)) parameters++;
+        }
+        if (parameters != node.getArguments().size()) {
+            errorFound = true;
+            logError(node.getOffset(), "Method " + node.getName() + " expects " + parameters + " arguments, found " + node.getArguments().size());
+        } else {
+            logInfo("Call " + node.getName() + " is valid");
         }
     }
 
@@ -190,17 +228,11 @@ public class SemanticAnalyzer {
         actualCheck = "checkIfWhileCondition";
         logInfo("Check " + ifWhileNode.getNodeClass() + " Node (ID: " + ifWhileNode.getId() + ")");
         ASTNode conditionNode = ifWhileNode.getLeft();
-        if (conditionNode.getNodeSubclass() != null &&
-                (conditionNode.getNodeSubclass().equals(TokenType.EQUAL)   ||
-                 conditionNode.getNodeSubclass().equals(TokenType.NEQUAL)  ||
-                 conditionNode.getNodeSubclass().equals(TokenType.GREATER) ||
-                 conditionNode.getNodeSubclass().equals(TokenType.GR_EQ)   ||
-                 conditionNode.getNodeSubclass().equals(TokenType.SMALLER) ||
-                 conditionNode.getNodeSubclass().equals(TokenType.SM_EQ))) {
+        if (Grammar.isRelation(conditionNode.getNodeSubclass())) {
             logInfo("Bool condition found");
         } else {
             errorFound = true;
-            logError("Bool condition not found [node: " + conditionNode.getNodeClass() + "]");
+            logError(conditionNode.getOffset(), "Bool condition not found [node: " + conditionNode.getNodeClass() + "]");
         }
     }
 
@@ -210,96 +242,71 @@ public class SemanticAnalyzer {
      */
     private void checkAssignFinal(ASTNode node) {
         actualCheck = "checkAssignFinal";
-        for (STObject obj : checkList) {
-            if (obj.getName().equals(node.getName())){
-                if(obj.getObjClass().equals(ObjClass.CONST)){
-                    errorFound = true;
-                    logError( "cannot assign a value to final variable " + node.getName());
-                }
-            }
+        STObject obj = node.getObject();
+        if (obj != null && obj.getObjClass().equals(ObjClass.CONST)){
+            errorFound = true;
+            logError(node.getOffset(), "cannot assign a value to final variable " + node.getName());
         }
     }
 
     //-------------------------------------------------------------------------------------------------------
 
     /**
-     * check Var has value on use
-     * @param node node
-     * @param list list of variables with value
+     * check Var has value on use, IF/ELSE and WHILE statements get a copy of the list
      */
-    private void checkVarValue(ASTNode node, List<String> list) {
-        if(node.getNodeClass() != null && node.getNodeClass().equals(ASTClass.VAR)){
-            if(node.getName()!= null) hasValue(node.getName(), list);
-        }
-
-        if(node.getNodeClass() != null && node.getNodeClass().equals(ASTClass.PROD)){
-            checkParameterValue(node.getObject().getSymtab(), list);
-        }
-
-        if (node.getNodeClass() != null && node.getNodeClass().equals(ASTClass.ASSIGN) ){
-            //add right Var
-            if(!list.contains(node.getLeft().getName())) list.add(node.getLeft().getName());
-
-            //check right side
-            checkVarValue(node.getRight(), list);
-        }
-
-        if (node.getNodeClass() != null && node.getNodeClass().equals(ASTClass.IF_ELSE)  ){
-            //If Condition Check
-            checkVarValue(node.getLeft().getLeft(), list);
+    private class ValueCheck implements ASTVisitor {
 
-            //If Statements with new List
-            checkVarValue(node.getLeft().getRight(), new LinkedList<>(list));
+        private BitSet list;
+        private final ArrayDeque<BitSet> scopes = new ArrayDeque<>();
 
-            //Else Statements with new List
-            checkVarValue(node.getRight(), new LinkedList<>(list));
+        /**
+         * @param list symbol ids of variables with value
+         */
+        ValueCheck(BitSet list) {
+            this.list = list;
         }
 
-        if (node.getNodeClass() != null && node.getNodeClass().equals(ASTClass.WHILE)){
-            //While Condition Check
-            checkVarValue(node.getLeft(), list );
-
-            //While Statements with new List
-            checkVarValue(node.getRight(), new LinkedList<>(list) );
-        }
-
-        if (node.getNodeClass() != null && node.getNodeClass().equals(ASTClass.BINOP)){     //check left and right side of BINOP
-            checkVarValue(node.getLeft(), list );
-            checkVarValue(node.getRight(), list );
-        }
-        if (node.getNodeClass() != null && node.getNodeClass().equals(ASTClass.RETURN)){     //check Return
-            if(node.getLeft() != null) checkVarValue(node.getLeft(), list );
+        @Override
+        public boolean enter(ASTNode node) {
+            switch (node.getNodeClass()) {
+                case VAR -> {
+                    if (node.getSymbol() != SymbolPool.NONE) hasValue(node, list);
+                }
+                default -> { }
+            }
+            return true;
         }
 
-
-        if (node.getLink() != null) {
-            checkVarValue(node.getLink(), list);
+        @Override
+        public void between(ASTNode node, int index) {
+            switch (node.getNodeClass()) {
+                case IF, IF_ELSE, WHILE -> {                            //statements with new List
+                    scopes.push(list);
+                    list = (BitSet) list.clone();
+                }
+                default -> { }
+            }
         }
-    }
 
-    /**
-     * check if called parameter variables has value
-     * @param symtab symboltable
-     * @param list list of variables with value
-     */
-    private void checkParameterValue(SymbolTable symtab, List<String> list) {
-        for (STObject s: symtab.getObjects()) {
-            if(s.getObjClass().equals(ObjClass.PAR)){
-                hasValue(s.getName(), list);
-            }else if(s.getObjClass().equals(ObjClass.PROC)){
-                checkParameterValue(s.getSymtab(), list);
+        @Override
+        public void leave(ASTNode node) {
+            switch (node.getNodeClass()) {
+                case ASSIGN -> list.set(node.getLeft().getSymbol());    //add left Var after the value
+                case IF, IF_ELSE, WHILE -> list = scopes.pop();
+                default -> { }
             }
         }
     }
 
     /**
      * check if called variables has value
-     * @param name name
-     * @param list list of variables with value
+     * @param node VAR node
+     * @param list symbol ids of variables with value
      */
-    private void hasValue(String name, List<String> list) {
-        if(!list.contains(name)){
-            logError("Error! Var " + name+ " is null");
+    private void hasValue(ASTNode node, BitSet list) {
+        String name = node.getName();
+        if(!list.get(node.getSymbol())){
+            logError(node.getOffset(), "Error! Var " + name+ " is null");
             errorFound = true;
         }else{
             logInfo("Var " + name + " has value");
@@ -312,67 +319,23 @@ public class SemanticAnalyzer {
      * @param symbolTable symboltable
      * @param method node
      */
-    private LinkedList<String> getInitValues(SymbolTable symbolTable, STObject method){
-        LinkedList<String> objList = new LinkedList<>();
+    private BitSet getInitValues(SymbolTable symbolTable, STObject method){
+        BitSet objList = new BitSet();
         //finals
         for (STObject obj : symbolTable.getObjects()) {
             if( obj.getObjClass().equals(ObjClass.CONST) ){
-                objList.add(obj.getName());
+                objList.set(obj.getSymbol());
             }
         }
         // parameter
         for (STObject obj : method.getSymtab().getObjects() ){
             if( obj.getObjClass().equals(ObjClass.PAR) ){
-                objList.add(obj.getName());
+                objList.set(obj.getSymbol());
             }
         }
         return objList;
     }
 
-    //-------------------------------------------------------------------------------------------------------
-    // Helper Methods
-    /**
-     * get all init variables (Parameter/Finals/Globals)
-     * @param symbolTable symboltable
-     * @param method node
-     */
-    private void getInitVars(SymbolTable symbolTable, STObject method){
-        LinkedList<STObject> objList = new LinkedList<>();
-        //finals
-        for (STObject obj : symbolTable.getObjects()) {
-            if( obj.getObjClass().equals(ObjClass.CONST) ){
-                objList.add(obj);
-            }
-        }
-        // vars
-        for (STObject obj : symbolTable.getObjects()) {
-            if( obj.getObjClass().equals(ObjClass.VAR) ){
-                objList.add(obj);
-            }
-        }
-        // vars method
-        for (STObject obj : method.getSymtab().getObjects() ){
-            if( obj.getObjClass().equals(ObjClass.VAR) || obj.getObjClass().equals(ObjClass.PAR) ){
-                objList.add(obj);
-            }
-        }
-        checkList = objList;
-    }
-
-    /**
-     * find Var in list for init variables
-     * @param name name
-     * @return true/false
-     */
-    private boolean findVar(String name){
-        for (STObject obj : checkList) {
-            if(obj.getName().equals(name)){
-                return true;
-            }
-        }
-        return false;
-    }
-
     //-------------------------------------------------------------------------------------------------------
     // Log Methods
 
@@ -385,11 +348,13 @@ public class SemanticAnalyzer {
     }
 
     /**
-     * print ERROR
+     * print ERROR and collect it
+     * @param offset source offset of the node
      * @param message message
      */
-    private void logError(String message) {
+    private void logError(int offset, String message) {
         logger.error("SemanticAnalyzer." + actualCheck + ": " + message);
+        diagnostics.add(new Diagnostic(ast.getPosition(offset), message));
     }
 
     /**
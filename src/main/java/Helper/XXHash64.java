@@ -0,0 +1,104 @@
+package Helper;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * XXH64 - fast non cryptographic 64 bit hash
+ *
+ * Used as content key of the build cache, reads 8 bytes per step.
+ *
+ * @author Kr3b5
+ */
+public final class XXHash64 {
+
+    private static final long P1 = 0x9E3779B185EBCA87L;
+    private static final long P2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long P3 = 0x165667B19E3779F9L;
+    private static final long P4 = 0x85EBCA77C2B2AE63L;
+    private static final long P5 = 0x27D4EB2F165667C5L;
+
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private XXHash64() {
+    }
+
+    /**
+     * hash bytes
+     * @param data bytes
+     * @param seed seed
+     * @return hash
+     */
+    public static long hash(byte[] data, long seed) {
+        return hash(data, 0, data.length, seed);
+    }
+
+    /**
+     * hash a part of an array
+     * @param data bytes
+     * @param off start offset
+     * @param len number of bytes
+     * @param seed seed
+     * @return hash
+     */
+    public static long hash(byte[] data, int off, int len, long seed) {
+        int end = off + len;
+        long h;
+        if (len >= 32) {
+            long v1 = seed + P1 + P2;
+            long v2 = seed + P2;
+            long v3 = seed;
+            long v4 = seed - P1;
+            int limit = end - 32;
+            do {
+                v1 = round(v1, (long) LONG.get(data, off));
+                v2 = round(v2, (long) LONG.get(data, off + 8));
+                v3 = round(v3, (long) LONG.get(data, off + 16));
+                v4 = round(v4, (long) LONG.get(data, off + 24));
+                off += 32;
+            } while (off <= limit);
+            h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h = merge(h, v1);
+            h = merge(h, v2);
+            h = merge(h, v3);
+            h = merge(h, v4);
+        } else {
+            h = seed + P5;
+        }
+        h += len;
+
+        for (; off + 8 <= end; off += 8) {
+            h ^= round(0, (long) LONG.get(data, off));
+            h = Long.rotateLeft(h, 27) * P1 + P4;
+        }
+        if (off + 4 <= end) {
+            h ^= ((int) INT.get(data, off) & 0xFFFFFFFFL) * P1;
+            h = Long.rotateLeft(h, 23) * P2 + P3;
+            off += 4;
+        }
+        for (; off < end; off++) {
+            h ^= (data[off] & 0xFF) * P5;
+            h = Long.rotateLeft(h, 11) * P1;
+        }
+
+        h ^= h >>> 33;
+        h *= P2;
+        h ^= h >>> 29;
+        h *= P3;
+        h ^= h >>> 32;
+        return h;
+    }
+
+    private static long round(long acc, long input) {
+        acc += input * P2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * P1;
+    }
+
+    private static long merge(long acc, long v) {
+        acc ^= round(0, v);
+        return acc * P1 + P4;
+    }
+}
@@ -0,0 +1,55 @@
+package Parser;
+
+import Data.TokenType;
+
+import java.util.EnumSet;
+
+import static Data.TokenType.*;
+
+/**
+ * FIRST and FOLLOW sets of the JavaSST grammar
+ *
+ * The sets are EnumSets, a lookup is a bit test on the ordinal mask.
+ *
+ * @author Kr3b5
+ */
+public final class Grammar {
+
+    /** statement = assignment | procedure_call | if_statement | while_statement | return_statement */
+    static final EnumSet<TokenType> FIRST_STATEMENT = EnumSet.of(IDENT, IF, WHILE, RETURN);
+
+    /** expression, simple_expression, term, factor */
+    static final EnumSet<TokenType> FIRST_EXPRESSION = EnumSet.of(IDENT, NUMBER, LPAREN);
+
+    /** method_type = “void” | type */
+    static final EnumSet<TokenType> METHOD_TYPE = EnumSet.of(INT, VOID);
+
+    /** operators of expression */
+    static final EnumSet<TokenType> RELATION_OP = EnumSet.of(EQUAL, NEQUAL, SMALLER, SM_EQ, GREATER, GR_EQ);
+
+    /**
+     * @param type token type of an operator
+     * @return true for a relation (==, !=, <, <=, >, >=)
+     */
+    public static boolean isRelation(TokenType type) {
+        return type != null && RELATION_OP.contains(type);
+    }
+
+    /** operators of simple_expression */
+    static final EnumSet<TokenType> ADD_OP = EnumSet.of(PLUS, MINUS);
+
+    /** operators of term */
+    static final EnumSet<TokenType> MUL_OP = EnumSet.of(TIMES, SLASH);
+
+    /** end of declarations */
+    static final EnumSet<TokenType> FOLLOW_DECLARATIONS = EnumSet.of(RCBRACKET, EOF);
+
+    /** error recovery - restart after a broken statement */
+    static final EnumSet<TokenType> SYNC_STATEMENT = EnumSet.of(SEMI, RCBRACKET, IF, WHILE, RETURN, EOF);
+
+    /** error recovery - restart after a broken declaration */
+    static final EnumSet<TokenType> SYNC_DECLARATION = EnumSet.of(FINAL, PUBLIC, EOF);
+
+    private Grammar() {
+    }
+}
@@ -2,11 +2,13 @@ package Parser;
 
 import AbstractSyntaxTree.*;
 import Data.*;
+import Scanner.ScanMode;
 import Scanner.Scanner;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.FileNotFoundException;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -22,17 +24,22 @@ public class Parser {
      */
     private static final Logger logger = LogManager.getLogger(Parser.class.getName());
 
-    private final Scanner scanner;
+    private final TokenBuffer tokens;
+    private final SymbolPool symbols;
 
-    private Token actualToken;
-    private Token bufferToken;
+    private int actual;
+    private int buffer;
 
     private boolean EOF;
     private boolean FAIL;
+    private boolean panic;
+
+    private final List<Diagnostic> diagnostics;
 
     private SymbolTable symbolTable;
     private SymbolTable symbolTableBuffer;
-    private String ST_ID;
+    private int ST_ID;
+    private int ST_TOKEN;
     private int ST_VALUE;
     private String ST_M_Type;
 
@@ -43,32 +50,78 @@ public class Parser {
     private final List<ASTNode> finalNodes;
     private final List<ASTNode> varNodes;
     private final List<ASTNode> methodNodes;
+    private final List<ASTNode> pendingNodes;
     private ASTNodeContainer nodeContainerFinal;
     private ASTNodeContainer nodeContainerVars;
     private ASTNodeContainer nodeContainerMethods;
 
-    private String AST_ID;
-
-    SymbolTable subST;
-    SymbolTable bufferSubST;
+    private int AST_ID;
 
     public Parser(String filePath) throws FileNotFoundException {
-        this.scanner = new Scanner(filePath);
-        scanner.getSym();                       //read first Token in buffer
-        bufferToken = scanner.getToken();
+        this(filePath, new TokenBuffer());
+    }
+
+    /**
+     * Instantiates a new Parser, the token buffer is reused
+     *
+     * @param filePath path java file
+     * @param tokens token buffer
+     * @throws FileNotFoundException Exception - file not found
+     */
+    public Parser(String filePath, TokenBuffer tokens) throws FileNotFoundException {
+        this(filePath, tokens, ScanMode.DIRECT);
+    }
+
+    /**
+     * Instantiates a new Parser with the given scanner implementation
+     *
+     * @param filePath path java file
+     * @param tokens token buffer
+     * @param mode scanner implementation
+     * @throws FileNotFoundException Exception - file not found
+     */
+    public Parser(String filePath, TokenBuffer tokens, ScanMode mode) throws FileNotFoundException {
+        this(scan(filePath, tokens, mode));
+    }
+
+    /**
+     * Instantiates a new Parser for an already scanned token buffer
+     *
+     * @param tokens scanned tokens
+     */
+    public Parser(TokenBuffer tokens) {
+        this.tokens = tokens;
+        this.symbols = tokens.getSymbols();
+        actual = buffer = 0;                    //first Token in buffer
         FAIL = false;
         this.symbolTable = new SymbolTable();
-        ST_ID = null;
+        ST_ID = SymbolPool.NONE;
         astID = 1;
 
         finalNodes = new LinkedList<>();
         varNodes = new LinkedList<>();
         methodNodes = new LinkedList<>();
+        pendingNodes = new ArrayList<>();
+        diagnostics = new ArrayList<>();
+    }
+
+    private static TokenBuffer scan(String filePath, TokenBuffer tokens, ScanMode mode) throws FileNotFoundException {
+        new Scanner(filePath, mode).scan(tokens);
+        return tokens;
     }
 
-    //Start parsing
-    public void parseFile() {
+    /**
+     * Start parsing, syntax errors are reported and the parser continues after the next ";", "}" or statement
+     *
+     * @return syntax errors, empty if the file is valid
+     */
+    public List<Diagnostic> parseFile() {
         checkClass();
+        return diagnostics;
+    }
+
+    public List<Diagnostic> getDiagnostics() {
+        return diagnostics;
     }
 
     public SymbolTable getSymbolTable() {
@@ -86,22 +139,24 @@ public class Parser {
      */
     private void checkClass() {
         if (readNextToken()) {
-            if (actualToken.getType().name().equals(TokenType.CLASS.name())) {
+            if (actualType() == TokenType.CLASS) {
                 checkIdent();
 
                 SymbolTable newST = new SymbolTable(symbolTable);
-                STObject stClassObj = new STObject(ST_ID, ObjClass.CLASS,newST);
+                STObject stClassObj = new STObject(ST_ID, symbols.name(ST_ID), ObjClass.CLASS,newST);
                 SymbolTableInsert(stClassObj);
                 SymbolTable prev = symbolTable;
                 symbolTable = newST;
 
                 // AST
                 ast = new AST(astID++, stClassObj);
+                ast.setSource(tokens.getFile(), tokens.getLines());
                 createContainer();
 
                 checkClassbody();
 
                 mergeContainers();
+                bindPending(newST);
 
                 symbolTable = prev;
             } else {
@@ -128,41 +183,47 @@ public class Parser {
      *                          { method_declaration }
      */
     private void checkDeclaration() {
-        while(bufferToken.getType().name().equals(TokenType.FINAL.name())) {
-            readNextToken();    //read buffer to actualToken
-            checkType();
-            checkIdent();
-            checkAssign();
-            checkExpression();
-            checkSemicolon();
+        for (TokenType type = bufferType(); !Grammar.FOLLOW_DECLARATIONS.contains(type); type = bufferType()) {
+            switch (type) {
+                case FINAL -> checkFinalDeclaration();
+                case INT -> checkVarDeclaration();
+                default -> checkMethodDeclaration();
+            }
+            recoverDeclaration();
+        }
+    }
 
-            STObject stFinalObj = new STObject(ST_ID, ObjClass.CONST, STType.INT,ST_VALUE);
-            ASTNode consNode = new ASTNode(astID++,ST_VALUE);
+    /**
+     *  Check: “final” type ident “=” expression “;”
+     */
+    private void checkFinalDeclaration() {
+        readNextToken();    //read buffer to actualToken
+        checkType();
+        checkIdent();
+        checkAssign();
+        checkExpression();
+        checkSemicolon();
 
-            SymbolTableInsert(stFinalObj);
+        STObject stFinalObj = new STObject(ST_ID, symbols.name(ST_ID), ObjClass.CONST, STType.INT,ST_VALUE);
+        ASTNode consNode = new ASTNode(astID++,ST_VALUE);
 
-            finalNodes.add(new ASTNode(astID++, consNode, stFinalObj));
+        SymbolTableInsert(stFinalObj);
 
-            checkDeclaration(); // check repeating declarations
-        }
-        while(bufferToken.getType().name().equals(TokenType.INT.name())) {
-            readNextToken();    //read buffer to actualToken
-            checkIdent();
-            checkSemicolon();
+        finalNodes.add(at(new ASTNode(astID++, consNode, stFinalObj), ST_TOKEN));
+    }
 
-            STObject stVarObj = new STObject(ST_ID, ObjClass.VAR, STType.INT);
-            SymbolTableInsert(stVarObj);
+    /**
+     *  Check: type ident “;”
+     */
+    private void checkVarDeclaration() {
+        readNextToken();    //read buffer to actualToken
+        checkIdent();
+        checkSemicolon();
 
-            varNodes.add(new ASTNode(astID++, stVarObj));
+        STObject stVarObj = new STObject(ST_ID, symbols.name(ST_ID), ObjClass.VAR, STType.INT);
+        SymbolTableInsert(stVarObj);
 
-            checkDeclaration(); // check repeating declarations
-        }
-        while(!(bufferToken.getType().name().equals(TokenType.RCBRACKET.name()) ||
-                bufferToken.getType().name().equals(TokenType.OTHER.name())     ||
-                bufferToken.getType().name().equals(TokenType.EOF.name()))      ){
-            checkMethodDeclaration();
-            checkDeclaration(); // check repeating declarations
-        }
+        varNodes.add(at(new ASTNode(astID++, stVarObj), ST_TOKEN));
     }
 
     /**
@@ -185,17 +246,17 @@ public class Parser {
 
             SymbolTable newST = new SymbolTable(symbolTable);
             STObject stMethodObj;
-            if(ST_M_Type.equals("VOID")){
-                stMethodObj = new STObject(ST_ID, ObjClass.PROC, STType.VOID, newST);
+            if("VOID".equals(ST_M_Type)){
+                stMethodObj = new STObject(ST_ID, symbols.name(ST_ID), ObjClass.PROC, STType.VOID, newST);
                 SymbolTableInsert(stMethodObj);
             }else{
-                stMethodObj = new STObject(ST_ID, ObjClass.PROC, STType.INT, newST);
+                stMethodObj = new STObject(ST_ID, symbols.name(ST_ID), ObjClass.PROC, STType.INT, newST);
                 SymbolTableInsert(stMethodObj);
             }
             symbolTableBuffer = symbolTable;
             symbolTable = newST;
 
-            bufferNode = new ASTNode(astID++, stMethodObj);
+            bufferNode = at(new ASTNode(astID++, stMethodObj), ST_TOKEN);
             methodNodes.add(bufferNode);
 
             checkFormalParameters();
@@ -208,9 +269,9 @@ public class Parser {
      */
     private void checkFormalParameters() {
         checkLBracket();
-        if( bufferToken.getType().name().equals(TokenType.INT.name()) ){
+        if( bufferType() == TokenType.INT ){
             checkFpSection();
-            while( bufferToken.getType().name().equals(TokenType.COMMA.name()) ){
+            while( bufferType() == TokenType.COMMA ){
                 readNextToken(); //read checked tokens from buffer
                 checkFpSection();
             }
@@ -225,7 +286,7 @@ public class Parser {
         checkType();
         checkIdent();
 
-        SymbolTableInsert(new STObject(ST_ID, ObjClass.PAR, STType.INT));
+        SymbolTableInsertLocal(new STObject(ST_ID, symbols.name(ST_ID), ObjClass.PAR, STType.INT));
     }
 
     /**
@@ -233,7 +294,7 @@ public class Parser {
      */
     private void checkMethodBody() {
         checkLCBracket();
-        while ( bufferToken.getType().name().equals(TokenType.INT.name()) ){
+        while ( bufferType() == TokenType.INT ){
             checkLocalDeclaration();
         }
         ASTNode mbNode = checkStatementSequenz();
@@ -250,7 +311,7 @@ public class Parser {
         checkIdent();
         checkSemicolon();
 
-        SymbolTableInsert(new STObject(ST_ID, ObjClass.VAR, STType.INT));
+        SymbolTableInsertLocal(new STObject(ST_ID, symbols.name(ST_ID), ObjClass.VAR, STType.INT));
     }
 
     /**
@@ -259,14 +320,14 @@ public class Parser {
     private ASTNode checkStatementSequenz() {
         ASTNode last, actual, first;
         last = checkStatement();
+        recoverStatement();
         first = last;
-        while ( bufferToken.getType().name().equals(TokenType.IDENT.name())  |
-                bufferToken.getType().name().equals(TokenType.IF.name())     |
-                bufferToken.getType().name().equals(TokenType.WHILE.name())  |
-                bufferToken.getType().name().equals(TokenType.RETURN.name()) ){
+        while ( Grammar.FIRST_STATEMENT.contains(bufferType()) ){
             actual = checkStatement();
+            recoverStatement();
+            if (actual == null) continue;       // broken statement
 
-            last.setLink(actual);
+            if (last == null) first = actual; else last.setLink(actual);
             last = actual;
         }
         return first;
@@ -277,25 +338,30 @@ public class Parser {
      */
     private ASTNode checkStatement() {
         ASTNode statementNode = null;
-        if ( bufferToken.getType().name().equals(TokenType.IDENT.name())){
-            AST_ID = bufferToken.getValue();
-            readNextToken();
-            if ( bufferToken.getType().name().equals(TokenType.ASSIGN.name())){
-                statementNode = checkAssignment();
-            }else if (bufferToken.getType().name().equals(TokenType.LPAREN.name()) ){
-                checkProcedureCall();
+        switch (bufferType()) {
+            case IDENT -> {
+                AST_ID = bufferSymbol();
+                readNextToken();
+                if ( bufferType() == TokenType.ASSIGN ){
+                    statementNode = checkAssignment();
+                }else if ( bufferType() == TokenType.LPAREN ){
+                    statementNode = checkProcedureCall();
+                }else printError(ParserErrors.ERROR_ASSIGN.message);
             }
-        }else if (bufferToken.getType().name().equals(TokenType.IF.name())){
-            readNextToken();        //read from buffer
-            statementNode = checkIfStatement();
-        }else if (bufferToken.getType().name().equals(TokenType.WHILE.name())){
-            readNextToken();        //read from buffer
-            statementNode = checkWhileStatement();
-        }else if (bufferToken.getType().name().equals(TokenType.RETURN.name())) {
-            readNextToken();        //read from buffer
-            statementNode = checkReturnStatement();
-        }else printError(ParserErrors.ERROR_STATEMENT.message);
-
+            case IF -> {
+                readNextToken();        //read from buffer
+                statementNode = checkIfStatement();
+            }
+            case WHILE -> {
+                readNextToken();        //read from buffer
+                statementNode = checkWhileStatement();
+            }
+            case RETURN -> {
+                readNextToken();        //read from buffer
+                statementNode = checkReturnStatement();
+            }
+            default -> printError(ParserErrors.ERROR_STATEMENT.message);
+        }
         return statementNode;
     }
 
@@ -304,21 +370,25 @@ public class Parser {
      */
     private ASTNode checkAssignment() {
         // IDENT already checked in checkStatement()
-        ASTNode identNode = new ASTNode(astID++, AST_ID, ASTClass.VAR);
+        ASTNode identNode = at(new ASTNode(astID++, AST_ID, symbols.name(AST_ID), ASTClass.VAR), actual);
+        bindVar(identNode);
 
         checkAssign();
         ASTNode expressionNode = checkExpression();
         checkSemicolon();
 
-        return new ASTNode(astID++, ASTClass.ASSIGN, identNode, expressionNode);
+        ASTNode assignNode = new ASTNode(astID++, ASTClass.ASSIGN, identNode, expressionNode);
+        assignNode.setOffset(identNode.getOffset());
+        return assignNode;
     }
 
     /**
      *  Check: procedure_call = intern_procedure_call “;”
      */
-    private void checkProcedureCall() {
-        checkInternProcedureCall();
+    private ASTNode checkProcedureCall() {
+        ASTNode procedureNode = checkInternProcedureCall();
         checkSemicolon();
+        return procedureNode;
     }
 
     /**
@@ -326,10 +396,9 @@ public class Parser {
      */
     private ASTNode checkInternProcedureCall() {
         // IDENT already checked in checkStatement()
-        ASTNode internProcedureNode = new ASTNode(astID++, actualToken.getValue(), ASTClass.PROD);
-        checkActualParameters();
-
-        internProcedureNode.setObject(new STObject(bufferSubST));
+        ASTNode internProcedureNode = at(new ASTNode(astID++, actualSymbol(), actualName(), ASTClass.PROD), actual);
+        bindProc(internProcedureNode);
+        internProcedureNode.setArguments(checkActualParameters());
 
         return internProcedureNode;
     }
@@ -339,8 +408,8 @@ public class Parser {
      */
     private ASTNode checkIfStatement() {
         // IF already checked in checkStatement()
-        ASTNode ifelseNode = new ASTNode(astID++, ASTClass.IF_ELSE);
-        ASTNode ifNode = new ASTNode(astID++, ASTClass.IF);
+        ASTNode ifelseNode = at(new ASTNode(astID++, ASTClass.IF_ELSE), actual);
+        ASTNode ifNode = at(new ASTNode(astID++, ASTClass.IF), actual);
         ASTNode statementSeqNode;
 
         checkLBracket();
@@ -357,11 +426,13 @@ public class Parser {
         ifelseNode.setLeft(ifNode);
 
         checkElse();
-        checkLCBracket();
-        statementSeqNode = checkStatementSequenz();
-        checkRCBracket();
+        if (actualType() == TokenType.ELSE) {   // no else block after a missing else
+            checkLCBracket();
+            statementSeqNode = checkStatementSequenz();
+            checkRCBracket();
 
-        ifelseNode.setRight(statementSeqNode);
+            ifelseNode.setRight(statementSeqNode);
+        }
 
         return ifelseNode;
     }
@@ -371,7 +442,7 @@ public class Parser {
      */
     private ASTNode checkWhileStatement() {
         // WHILE already checked in checkStatement()
-        ASTNode whileNode = new ASTNode(astID++, ASTClass.WHILE);
+        ASTNode whileNode = at(new ASTNode(astID++, ASTClass.WHILE), actual);
 
         checkLBracket();
         ASTNode expressionNode = checkExpression();
@@ -393,56 +464,42 @@ public class Parser {
      */
     private ASTNode checkReturnStatement() {
         // RETURN already checked in checkStatement()
+        int returnToken = actual;
         ASTNode simpleExpressionNode = null;
-        if ( bufferToken.getType().name().equals(TokenType.IDENT.name()) ||
-             bufferToken.getType().name().equals(TokenType.NUMBER.name()) ){
+        if ( Grammar.FIRST_EXPRESSION.contains(bufferType()) ){
             simpleExpressionNode = checkSimpleExpression();
         }
         checkSemicolon();
 
-        return new ASTNode(astID++, ASTClass.RETURN, simpleExpressionNode);
+        return at(new ASTNode(astID++, ASTClass.RETURN, simpleExpressionNode), returnToken);
     }
 
     /**
      *  Check: actual_parameters = “(“ [expression {“,” expression}]“)”
      */
-    private void checkActualParameters() {
+    private List<ASTNode> checkActualParameters() {
+        List<ASTNode> arguments = new ArrayList<>();
         checkLBracket();
-        if ( bufferToken.getType().name().equals(TokenType.IDENT.name()) ||
-             bufferToken.getType().name().equals(TokenType.NUMBER.name()) ){
-            checkExpression();
-            getParam();
-            while (bufferToken.getType().name().equals(TokenType.COMMA.name())) {
+        if ( Grammar.FIRST_EXPRESSION.contains(bufferType()) ){
+            arguments.add(checkExpression());
+            while (bufferType() == TokenType.COMMA) {
                 readNextToken(); //read checked tokens from buffer
-                checkExpression();
-                getParam();
+                arguments.add(checkExpression());
             }
         }
         checkRBracket();
-        subST = subST.getEnclose();
-    }
-
-    private void getParam() {
-        if(actualToken.getType().equals(TokenType.IDENT)){
-            subST.insert(new STObject(actualToken.getValue(), ObjClass.PAR));
-        }else if(actualToken.getType().equals(TokenType.NUMBER)){
-            subST.insert(new STObject(actualToken.getValue(), ObjClass.CONST));
-        }
+        return arguments;
     }
 
     /**
-     *  Check: expression = simple_expression [(“==” | “<” | ”<= ” | “>” | ”>= ”) simple_expression]
+     *  Check: expression = simple_expression [(“==” | “!=” | “<” | ”<= ” | “>” | ”>= ”) simple_expression]
      */
     private ASTNode checkExpression() {
         ASTNode simpleExpressionNode = checkSimpleExpression();
         ASTNode ExpressionNode = simpleExpressionNode;
-        if ( bufferToken.getType().name().equals(TokenType.EQUAL.name())   ||
-             bufferToken.getType().name().equals(TokenType.SMALLER.name()) ||
-             bufferToken.getType().name().equals(TokenType.SM_EQ.name())   ||
-             bufferToken.getType().name().equals(TokenType.GREATER.name()) ||
-             bufferToken.getType().name().equals(TokenType.GR_EQ.name())   ){
+        if ( Grammar.RELATION_OP.contains(bufferType()) ){
 
-            ExpressionNode = new ASTNode(astID++, simpleExpressionNode, ASTClass.BINOP, bufferToken.getType());
+            ExpressionNode = at(new ASTNode(astID++, simpleExpressionNode, ASTClass.BINOP, bufferType()), buffer);
 
             readNextToken(); //read checked tokens from buffer
             simpleExpressionNode = checkSimpleExpression();
@@ -458,13 +515,12 @@ public class Parser {
     private ASTNode checkSimpleExpression() {
         ASTNode termNode = checkTerm();
         ASTNode simpleExpressionNode = termNode;
-        while ( bufferToken.getType().name().equals(TokenType.PLUS.name()) ||
-                bufferToken.getType().name().equals(TokenType.MINUS.name())) {
+        while ( Grammar.ADD_OP.contains(bufferType()) ) {
 
             if (simpleExpressionNode.getRight() != null){
-                simpleExpressionNode = new ASTNode(astID++, simpleExpressionNode, ASTClass.BINOP, bufferToken.getType());
+                simpleExpressionNode = at(new ASTNode(astID++, simpleExpressionNode, ASTClass.BINOP, bufferType()), buffer);
             }else{
-                simpleExpressionNode = new ASTNode(astID++, termNode, ASTClass.BINOP, bufferToken.getType());
+                simpleExpressionNode = at(new ASTNode(astID++, termNode, ASTClass.BINOP, bufferType()), buffer);
             }
 
             readNextToken(); //read checked tokens from buffer
@@ -481,13 +537,12 @@ public class Parser {
     private ASTNode checkTerm() {
         ASTNode factorNode = checkFactor();
         ASTNode termNode = factorNode;
-        while ( bufferToken.getType().name().equals(TokenType.TIMES.name()) ||
-                bufferToken.getType().name().equals(TokenType.SLASH.name()) ){
+        while ( Grammar.MUL_OP.contains(bufferType()) ){
 
             if (termNode.getRight() != null){
-                termNode  =  new ASTNode(astID++, termNode, ASTClass.BINOP, bufferToken.getType());
+                termNode  =  at(new ASTNode(astID++, termNode, ASTClass.BINOP, bufferType()), buffer);
             }else{
-                termNode  =  new ASTNode(astID++, factorNode, ASTClass.BINOP, bufferToken.getType());
+                termNode  =  at(new ASTNode(astID++, factorNode, ASTClass.BINOP, bufferType()), buffer);
             }
 
             readNextToken(); //read checked tokens from buffer
@@ -504,44 +559,30 @@ public class Parser {
     private ASTNode checkFactor() {
         ASTNode factorNode = null;
         readNextToken();
-        if (actualToken.getType().name().equals(TokenType.LPAREN.name())) {
+        if (actualType() == TokenType.LPAREN) {
             factorNode = checkExpression();
             checkRBracket();
-        } else if ( actualToken.getType().name().equals(TokenType.IDENT.name()) &&
-                    bufferToken.getType().name().equals(TokenType.LPAREN.name()) ){
-            getMethod();
+        } else if ( actualType() == TokenType.IDENT &&
+                    bufferType() == TokenType.LPAREN ){
             factorNode = checkInternProcedureCall();
-        } else if ( !(actualToken.getType().name().equals(TokenType.IDENT.name()) ||
-                      actualToken.getType().name().equals(TokenType.NUMBER.name())) ){
+        } else if ( !(actualType() == TokenType.IDENT || actualType() == TokenType.NUMBER) ){
             printError(ParserErrors.ERROR_FACTOR.message);
+            // error node, the tree is not compiled after a syntax error
+            return at(new ASTNode(astID++, 0), actual);
         }
 
-        if(actualToken.getType().name().equals(TokenType.NUMBER.name())){
-            ST_VALUE = Integer.parseInt(actualToken.getValue());
-            factorNode = new ASTNode(astID++, ST_VALUE);
+        if(actualType() == TokenType.NUMBER){
+            ST_VALUE = tokens.getIntValue(actual);
+            if(ST_VALUE == TokenBuffer.OVERFLOW) printError(ParserErrors.ERROR_NUMBER.message, actual);
+            factorNode = at(new ASTNode(astID++, ST_VALUE), actual);
         }
-        if(actualToken.getType().name().equals(TokenType.IDENT.name())){
-            factorNode = new ASTNode(astID++, actualToken.getValue(), ASTClass.VAR);
+        if(actualType() == TokenType.IDENT){
+            factorNode = at(new ASTNode(astID++, actualSymbol(), actualName(), ASTClass.VAR), actual);
+            bindVar(factorNode);
         }
         return factorNode;
     }
 
-    private void getMethod() {
-        if(actualToken.getType().equals(TokenType.IDENT) ){
-            if(subST != null){
-                SymbolTable s;
-                s = new SymbolTable(subST);
-                subST.insert(new STObject(actualToken.getValue(), ObjClass.PROC, s));
-                subST = s;
-            }else{
-                bufferSubST = new SymbolTable();
-                subST = bufferSubST;
-            }
-        }
-
-    }
-
-
     //-------------------------------------------------------------------------------------------------------
 
     // Terminals
@@ -550,10 +591,11 @@ public class Parser {
      * check Ident
      */
     private void checkIdent() {
-        if (!bufferToken.getType().name().equals(TokenType.IDENT.name())) {
+        if (bufferType() != TokenType.IDENT) {
             printError(ParserErrors.ERROR_IDENT.message);
         }else {
-            ST_ID = bufferToken.getValue();
+            ST_ID = bufferSymbol();
+            ST_TOKEN = buffer;
             readNextToken();
         }
     }
@@ -562,7 +604,7 @@ public class Parser {
      * check left curled bracket
      */
     private void checkLCBracket() {
-        if (!bufferToken.getType().name().equals(TokenType.LCBRACKET.name())) {
+        if (bufferType() != TokenType.LCBRACKET) {
             printError(ParserErrors.ERROR_LCBRACKET.message);
         }else { readNextToken(); }
     }
@@ -571,7 +613,7 @@ public class Parser {
      * check right curled bracket
      */
     private void checkRCBracket() {
-        if (!bufferToken.getType().name().equals(TokenType.RCBRACKET.name())) {
+        if (bufferType() != TokenType.RCBRACKET) {
             printError(ParserErrors.ERROR_RCBRACKET.message);
         }else { readNextToken(); }
     }
@@ -580,8 +622,10 @@ public class Parser {
      * check semicolon
      */
     private void checkSemicolon() {
-        if (!bufferToken.getType().name().equals(TokenType.SEMI.name())) {
+        if (bufferType() != TokenType.SEMI) {
             printError(ParserErrors.ERROR_SEMI.message);
+            // missing ";" before the next statement - continue as if it was there
+            if (Grammar.FIRST_STATEMENT.contains(bufferType())) panic = false;
         }else { readNextToken(); }
     }
 
@@ -589,7 +633,7 @@ public class Parser {
      * check =
      */
     private void checkAssign() {
-        if (!bufferToken.getType().name().equals(TokenType.ASSIGN.name())) {
+        if (bufferType() != TokenType.ASSIGN) {
             printError(ParserErrors.ERROR_ASSIGN.message);
         }else { readNextToken(); }
     }
@@ -598,7 +642,7 @@ public class Parser {
      * check int
      */
     private void checkType() {
-        if (!bufferToken.getType().name().equals(TokenType.INT.name())) {
+        if (bufferType() != TokenType.INT) {
             printError(ParserErrors.ERROR_TYPE.message);
         }else { readNextToken(); }
     }
@@ -607,11 +651,10 @@ public class Parser {
      * check method type - int / void
      */
     private void checkMethodType() {
-        if (!(  bufferToken.getType().name().equals(TokenType.INT.name()) ||
-                bufferToken.getType().name().equals(TokenType.VOID.name()) ) ) {
+        if ( !Grammar.METHOD_TYPE.contains(bufferType()) ) {
             printError(ParserErrors.ERROR_METHOD_TYPE.message);
         }else {
-            if(bufferToken.getType().name().equals(TokenType.INT.name())){
+            if(bufferType() == TokenType.INT){
                 ST_M_Type = "INT";
             }else{ ST_M_Type = "VOID"; }
             readNextToken();
@@ -622,7 +665,7 @@ public class Parser {
      * check left bracket
      */
     private void checkLBracket() {
-        if (!bufferToken.getType().name().equals(TokenType.LPAREN.name())) {
+        if (bufferType() != TokenType.LPAREN) {
             printError(ParserErrors.ERROR_LPAREN.message);
         }else { readNextToken(); }
     }
@@ -631,7 +674,7 @@ public class Parser {
      * check right bracket
      */
     private void checkRBracket() {
-        if (!bufferToken.getType().name().equals(TokenType.RPAREN.name())) {
+        if (bufferType() != TokenType.RPAREN) {
             printError(ParserErrors.ERROR_RPAREN.message);
         }else { readNextToken(); }
     }
@@ -640,7 +683,7 @@ public class Parser {
      * check else
      */
     private void checkElse() {
-        if (!bufferToken.getType().name().equals(TokenType.ELSE.name())) {
+        if (bufferType() != TokenType.ELSE) {
             printError(ParserErrors.ERROR_ELSE.message);
         }else { readNextToken(); }
     }
@@ -649,7 +692,7 @@ public class Parser {
      * check left public
      */
     private void checkPublic() {
-        if (!bufferToken.getType().name().equals(TokenType.PUBLIC.name())) {
+        if (bufferType() != TokenType.PUBLIC) {
             printError(ParserErrors.ERROR_PUBLIC.message);
         }else { readNextToken(); }
     }
@@ -661,26 +704,89 @@ public class Parser {
      */
     private boolean readNextToken() {
         if (EOF) return false;
-        if (scanner.hasNext()) {
-            actualToken = bufferToken;
-            scanner.getSym();
-        } else {
-            EOF = true;
-            actualToken = bufferToken; //last buffer transfer to actual Token
-        }
-        bufferToken = scanner.getToken();
+        actual = buffer;
+        if (buffer < tokens.size() - 1) buffer++;
+        if (tokens.getType(buffer) == TokenType.EOF) EOF = true;
         return true;
     }
 
+    private TokenType actualType() {
+        return tokens.getType(actual);
+    }
+
+    private TokenType bufferType() {
+        return tokens.getType(buffer);
+    }
+
+    private String actualValue() {
+        return tokens.getValue(actual);
+    }
+
+    private String bufferValue() {
+        return tokens.getValue(buffer);
+    }
+
+    private int actualSymbol() {
+        return tokens.getSymbol(actual);
+    }
+
+    private String actualName() {
+        return tokens.getValue(actual);
+    }
+
+    private int bufferSymbol() {
+        return tokens.getSymbol(buffer);
+    }
+
     //-------------------------------------------------------------------------------------------------------
     /**
-     * print errors
+     * print error and collect it, errors are suppressed until the parser is synchronized again
      */
     private void printError(String error) {
+        printError(error, buffer);
+    }
+
+    /**
+     * print error at a token
+     * @param error error message
+     * @param token index of the token
+     */
+    private void printError(String error, int token) {
+        FAIL = true;
+        if (panic) return;
+        panic = true;
         logger.error(getPrintFileInfo() + error);
         logger.error(getPrintFileInfo() + getPrintTokens() );
-        FAIL = true;
-        System.exit(1);
+        diagnostics.add(new Diagnostic(new Position(tokens.getFile(), tokens.getLine(token), tokens.getColumn(token)), error));
+    }
+
+    /**
+     * error recovery in statement sequences - skip to the next ";", "}" or statement keyword
+     */
+    private void recoverStatement() {
+        if (!panic) return;
+        while (!Grammar.SYNC_STATEMENT.contains(bufferType())) readNextToken();
+        if (bufferType() == TokenType.SEMI) readNextToken();
+        panic = false;
+    }
+
+    /**
+     * error recovery in declarations - skip to the next "final" or "public",
+     * at end of file go back to the last "}" to close the class
+     */
+    private void recoverDeclaration() {
+        if (!panic) return;
+        int lastClose = -1;
+        while (!Grammar.SYNC_DECLARATION.contains(bufferType())) {
+            if (bufferType() == TokenType.RCBRACKET) lastClose = buffer;
+            readNextToken();
+        }
+        if (bufferType() == TokenType.EOF && lastClose > 0) {
+            buffer = lastClose;
+            actual = lastClose - 1;
+            EOF = false;
+        }
+        panic = false;
     }
 
     /**
@@ -694,9 +800,9 @@ public class Parser {
      * print fileinfo
      */
     private String getPrintFileInfo(){
-        return scanner.getToken().getPosition().getFilename() + "("
-                + scanner.getToken().getPosition().getLine() + ","
-                + scanner.getToken().getPosition().getColumn() + "): ";
+        return tokens.getFile() + "("
+                + tokens.getLine(buffer) + ","
+                + tokens.getColumn(buffer) + "): ";
     }
 
     /**
@@ -704,11 +810,11 @@ public class Parser {
      */
     private String getPrintTokens(){
         return    "Actual token: "
-                + actualToken.getType().name() + " ["
-                + actualToken.getValue() + "]"
+                + actualType().name() + " ["
+                + actualValue() + "]"
                 + " | Buffer token: "
-                + bufferToken.getType().name() + " ["
-                + bufferToken.getValue() + "]";
+                + bufferType().name() + " ["
+                + bufferValue() + "]";
     }
 
     //-------------------------------------------------------------------------------------------------------
@@ -718,21 +824,86 @@ public class Parser {
      * insert object in symboltable
      */
     private void SymbolTableInsert(STObject obj){
-        symbolTable.insert(obj);
+        if (!symbolTable.insert(obj)) {
+            printError(ParserErrors.ERROR_DUPLICATE.message + " [" + obj.getName() + "]");
+        }
         resetValues();
     }
 
+    /**
+     * insert parameter or local in method symboltable, the slot is the position in the table
+     */
+    private void SymbolTableInsertLocal(STObject obj){
+        SymbolTableInsert(obj);
+        obj.setSlot(symbolTable.getObjects().size());
+    }
+
+    /**
+     * bind VAR node to the declaration in scope, names declared later in the class are bound at class end
+     */
+    private void bindVar(ASTNode node){
+        STObject obj = symbolTable.lookup(node.getSymbol());
+        if (obj == null) {
+            pendingNodes.add(node);
+        } else if (isVariable(obj)) {
+            node.setObject(obj);
+        }
+    }
+
+    /**
+     * bind PROD node to the method, methods declared later in the class are bound at class end
+     */
+    private void bindProc(ASTNode node){
+        for (SymbolTable st = symbolTable; st != null; st = st.getEnclose()) {
+            STObject obj = st.find(node.getSymbol());
+            if (obj != null && obj.getObjClass() == ObjClass.PROC) {
+                node.setObject(obj);
+                return;
+            }
+        }
+        pendingNodes.add(node);
+    }
+
+    /**
+     * bind the remaining VAR and PROD nodes to the class members
+     */
+    private void bindPending(SymbolTable classST){
+        for (ASTNode node : pendingNodes) {
+            STObject obj = classST.find(node.getSymbol());
+            if (obj == null) continue;
+            if (node.getNodeClass() == ASTClass.PROD ? obj.getObjClass() == ObjClass.PROC : isVariable(obj)) {
+                node.setObject(obj);
+            }
+        }
+        pendingNodes.clear();
+    }
+
+    private static boolean isVariable(STObject obj){
+        return obj.getObjClass() == ObjClass.CONST ||
+               obj.getObjClass() == ObjClass.VAR   ||
+               obj.getObjClass() == ObjClass.PAR;
+    }
+
     /**
      * reset values for symboltable objects
      */
     private void resetValues(){
         ST_VALUE = 0;
-        ST_ID = null;
+        ST_ID = SymbolPool.NONE;
+        ST_M_Type = null;
     }
 
     //-------------------------------------------------------------------------------------------------------
     // AST Helper
 
+    /**
+     * set the source offset of a node to the start of a token
+     */
+    private ASTNode at(ASTNode node, int token){
+        node.setOffset(tokens.getStart(token));
+        return node;
+    }
+
     /**
      * create container for AST
      */
@@ -21,6 +21,8 @@ public enum ParserErrors {
     ERROR_STATEMENT             ("Statement is missing!"),
     ERROR_ELSE                  ("\"else\" is missing!"),
     ERROR_FACTOR                ("Ident or Number is missing!"),
+    ERROR_NUMBER                ("Number is too large!"),
+    ERROR_DUPLICATE             ("Ident is already declared!"),
 
     ERROR_EMPTY                 ("File is empty!"),
     ERROR_EOF                   ("File not complete"),
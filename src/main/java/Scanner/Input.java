@@ -2,11 +2,20 @@ package Scanner;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import java.io.*;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.Iterator;
 
 /**
- * Iterator for reading the file
+ * Byte oriented source input with a primitive cursor
+ *
+ * Large files are mapped with FileChannel.map, small files are read into a heap array.
+ * Sources from memory are used without a copy.
  * @author Kr3b5
  */
 public class Input implements Iterator<Character> {
@@ -14,11 +23,14 @@ public class Input implements Iterator<Character> {
     /** The logger for this class. */
     private static final Logger logger = LogManager.getLogger(Input.class.getName());
 
-    private static final int EOF    = -1;
-    private static final int ERROR  = -2;
+    public static final int EOF    = -1;
+
+    /** files smaller than this are read into a heap array instead of being mapped */
+    private static final int MAP_THRESHOLD = 1 << 16;
 
-    private final BufferedReader reader;
-    private int buffer;
+    private final ByteBuffer source;
+    private final int length;
+    private int pos;
 
     /**
      * Instantiates new Input.
@@ -27,43 +39,137 @@ public class Input implements Iterator<Character> {
      * @throws FileNotFoundException Exception - file not found
      */
     public Input(final String filename) throws FileNotFoundException {
-        this.reader = new BufferedReader(new FileReader(filename));
-        next(); //read first char in buffer
+        this.source = load(filename);
+        this.length = source.limit();
+        this.pos = 0;
     }
 
     /**
-     * Read new char in buffer and return old buffer
+     * Instantiates new Input from a buffer, the source is the remaining part of the buffer.
      *
-     * @return char in buffer
+     * @param source the source bytes, the buffer position is not changed
      */
-    @Override
-    public Character next() {
-        int out = buffer;
-        try {
-            buffer = reader.read();
+    public Input(final ByteBuffer source) {
+        this.source = source.slice();
+        this.length = this.source.limit();
+        this.pos = 0;
+    }
+
+    /**
+     * Instantiates new Input from source text, chars are stored as ISO-8859-1 bytes.
+     *
+     * @param source the source text
+     */
+    public Input(final CharSequence source) {
+        this(ByteBuffer.wrap(source.toString().getBytes(StandardCharsets.ISO_8859_1)));
+    }
+
+    /**
+     * Load the file into a buffer
+     *
+     * @param filename the filename
+     * @return source buffer
+     * @throws FileNotFoundException Exception - file not found
+     */
+    private static ByteBuffer load(String filename) throws FileNotFoundException {
+        try (FileChannel channel = new FileInputStream(filename).getChannel()) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File too large: " + filename);
+            }
+            if (size >= MAP_THRESHOLD) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            ByteBuffer heap = ByteBuffer.allocate((int) size);
+            while (heap.hasRemaining() && channel.read(heap) >= 0) {
+                // read until buffer is full
+            }
+            heap.flip();
+            return heap;
+        } catch (FileNotFoundException e) {
+            throw e;
         } catch (IOException e) {
-            buffer = ERROR;
             logger.error(e.getMessage());
+            return ByteBuffer.allocate(0);
         }
-        return (char) out;
     }
 
     /**
-     * Checks if file has a next char
+     * Return the char at the cursor without moving it
      *
-     * @return boolean if file has next char
+     * @return char or EOF
+     */
+    public int peek() {
+        return pos < length ? source.get(pos) & 0xFF : EOF;
+    }
+
+    /**
+     * Return the char at the cursor and move the cursor to the next char
+     *
+     * @return char or EOF
+     */
+    public int advance() {
+        return pos < length ? source.get(pos++) & 0xFF : EOF;
+    }
+
+    /**
+     * Return the cursor position (byte offset)
+     *
+     * @return offset
+     */
+    public int getPosition() {
+        return pos;
+    }
+
+    /**
+     * Return the length of the source in bytes
+     *
+     * @return length
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Return the char at an offset
+     *
+     * @param offset byte offset
+     * @return char or EOF
+     */
+    public int charAt(int offset) {
+        return offset < length ? source.get(offset) & 0xFF : EOF;
+    }
+
+    /**
+     * Create a string from a part of the source
+     *
+     * @param offset byte offset
+     * @param length number of bytes
+     * @return string value
+     */
+    public String slice(int offset, int length) {
+        byte[] bytes = new byte[length];
+        source.get(offset, bytes, 0, length);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Read new char and return it
+     *
+     * @return char
      */
     @Override
-    public boolean hasNext() {
-        return buffer != EOF && buffer != ERROR;
+    public Character next() {
+        return (char) advance();
     }
 
     /**
-     * Return the buffer.
+     * Checks if file has a next char
      *
-     * @return char in buffer
+     * @return boolean if file has next char
      */
-    public Character getBuffer() {
-        return (char) this.buffer;
+    @Override
+    public boolean hasNext() {
+        return pos < length;
     }
 }
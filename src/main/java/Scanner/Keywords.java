@@ -0,0 +1,73 @@
+package Scanner;
+
+import Data.TokenType;
+
+import java.nio.charset.StandardCharsets;
+
+import static Data.TokenType.*;
+
+/**
+ * Keyword lookup on the source bytes
+ *
+ * The nine keywords are placed in a 16 entry table by a perfect hash of length,
+ * first and last char. A word is a keyword if the entry has the same length and
+ * the same bytes, no string is created.
+ *
+ * @author Kr3b5
+ */
+final class Keywords {
+
+    private static final int MIN_LENGTH = 2;
+    private static final int MAX_LENGTH = 6;
+
+    private static final byte[][] WORDS = new byte[16][];
+    private static final TokenType[] TYPES = new TokenType[16];
+
+    static {
+        add("class", CLASS);
+        add("public", PUBLIC);
+        add("final", FINAL);
+        add("void", VOID);
+        add("int", INT);
+        add("if", IF);
+        add("else", ELSE);
+        add("while", WHILE);
+        add("return", RETURN);
+    }
+
+    private Keywords() {
+    }
+
+    private static void add(String word, TokenType type) {
+        byte[] bytes = word.getBytes(StandardCharsets.ISO_8859_1);
+        int h = hash(bytes[0], bytes[bytes.length - 1], bytes.length);
+        if (WORDS[h] != null) {
+            throw new IllegalStateException("Keyword hash collision: " + word);
+        }
+        WORDS[h] = bytes;
+        TYPES[h] = type;
+    }
+
+    private static int hash(int first, int last, int length) {
+        return (first + last * 11 + length) & 15;
+    }
+
+    /**
+     * Type of a word in the source
+     *
+     * @param input source input
+     * @param begin offset of the word
+     * @param length length of the word
+     * @return keyword type or IDENT
+     */
+    static TokenType lookup(Input input, int begin, int length) {
+        if (length < MIN_LENGTH || length > MAX_LENGTH) return IDENT;
+        int h = hash(input.charAt(begin), input.charAt(begin + length - 1), length);
+        byte[] word = WORDS[h];
+        if (word == null || word.length != length) return IDENT;
+        for (int i = 0; i < length; i++) {
+            if (word[i] != input.charAt(begin + i)) return IDENT;
+        }
+        return TYPES[h];
+    }
+}
@@ -0,0 +1,14 @@
+package Scanner;
+
+/**
+ * Scanner implementation used for getSym
+ *
+ * DIRECT is the hand written if/else scanner, TABLE the table driven DFA in ScanTable.
+ * Both produce the same token stream.
+ *
+ * @author Kr3b5
+ */
+public enum ScanMode {
+    DIRECT,
+    TABLE
+}
@@ -0,0 +1,179 @@
+package Scanner;
+
+import Data.TokenType;
+
+import static Data.TokenType.*;
+
+/**
+ * Transition tables of the table driven scanner
+ *
+ * Every ASCII char is mapped to a char class, the DFA looks up the next state in a
+ * flattened state x class table. Negative entries are actions: emit the token of the
+ * state before the actual char, emit it including the actual char or stop at EOF.
+ *
+ * @author Kr3b5
+ */
+final class ScanTable {
+
+    // char classes
+    static final int C_SPACE  = 0;
+    static final int C_NL     = 1;
+    static final int C_LETTER = 2;
+    static final int C_DIGIT  = 3;
+    static final int C_EQ     = 4;
+    static final int C_LT     = 5;
+    static final int C_GT     = 6;
+    static final int C_BANG   = 7;
+    static final int C_SLASH  = 8;
+    static final int C_STAR   = 9;
+    static final int C_SINGLE = 10;
+    static final int C_OTHER  = 11;
+    static final int C_EOF    = 12;
+    static final int CLASSES  = 13;
+
+    // states
+    static final int S_START      = 0;
+    static final int S_IDENT      = 1;
+    static final int S_NUMBER     = 2;
+    static final int S_EQ         = 3;
+    static final int S_LT         = 4;
+    static final int S_GT         = 5;
+    static final int S_BANG       = 6;
+    static final int S_SLASH      = 7;
+    static final int S_LINE       = 8;
+    static final int S_BLOCK      = 9;
+    static final int S_BLOCK_STAR = 10;
+    static final int STATES       = 11;
+
+    // actions
+    /** emit the token of the state, the actual char is not part of it */
+    static final byte EMIT         = -1;
+    /** emit the token including the actual char */
+    static final byte EMIT_CONSUME = -2;
+    /** end of file outside of a token */
+    static final byte END          = -3;
+
+    /** char class of every ASCII char */
+    static final byte[] CLASS = new byte[128];
+
+    /** token type of single char tokens, used by EMIT_CONSUME in S_START */
+    static final TokenType[] SINGLE = new TokenType[128];
+
+    /** token type of a state for EMIT */
+    static final TokenType[] ACCEPT = new TokenType[STATES];
+
+    /** token type of a state for EMIT_CONSUME (two char operators) */
+    static final TokenType[] ACCEPT_CONSUME = new TokenType[STATES];
+
+    /** next state or action, index state * CLASSES + class */
+    static final byte[] NEXT = new byte[STATES * CLASSES];
+
+    static {
+        // classes
+        for (int ch = 0; ch < 128; ch++) {
+            CLASS[ch] = C_OTHER;
+            SINGLE[ch] = OTHER;
+        }
+        for (int ch = 0; ch <= ' '; ch++) CLASS[ch] = C_SPACE;
+        CLASS['\n'] = C_NL;
+        for (int ch = 'a'; ch <= 'z'; ch++) CLASS[ch] = C_LETTER;
+        for (int ch = 'A'; ch <= 'Z'; ch++) CLASS[ch] = C_LETTER;
+        for (int ch = '0'; ch <= '9'; ch++) CLASS[ch] = C_DIGIT;
+        CLASS['='] = C_EQ;
+        CLASS['<'] = C_LT;
+        CLASS['>'] = C_GT;
+        CLASS['!'] = C_BANG;
+        CLASS['/'] = C_SLASH;
+        CLASS['*'] = C_STAR;
+        single('(', LPAREN);
+        single(')', RPAREN);
+        single('+', PLUS);
+        single('-', MINUS);
+        single(',', COMMA);
+        single(';', SEMI);
+        single('{', LCBRACKET);
+        single('}', RCBRACKET);
+        SINGLE['*'] = TIMES;
+
+        // accepted types
+        ACCEPT[S_IDENT]  = IDENT;
+        ACCEPT[S_NUMBER] = NUMBER;
+        ACCEPT[S_EQ]     = ASSIGN;
+        ACCEPT[S_LT]     = SMALLER;
+        ACCEPT[S_GT]     = GREATER;
+        ACCEPT[S_BANG]   = OTHER;
+        ACCEPT[S_SLASH]  = SLASH;
+        ACCEPT_CONSUME[S_EQ]   = EQUAL;
+        ACCEPT_CONSUME[S_LT]   = SM_EQ;
+        ACCEPT_CONSUME[S_GT]   = GR_EQ;
+        ACCEPT_CONSUME[S_BANG] = NEQUAL;
+
+        // token states emit on every class not listed
+        for (int state = 0; state < STATES; state++) fill(state, EMIT);
+
+        // start
+        fill(S_START, EMIT_CONSUME);
+        set(S_START, C_SPACE, S_START);
+        set(S_START, C_NL, S_START);
+        set(S_START, C_LETTER, S_IDENT);
+        set(S_START, C_DIGIT, S_NUMBER);
+        set(S_START, C_EQ, S_EQ);
+        set(S_START, C_LT, S_LT);
+        set(S_START, C_GT, S_GT);
+        set(S_START, C_BANG, S_BANG);
+        set(S_START, C_SLASH, S_SLASH);
+        set(S_START, C_EOF, END);
+
+        // ident and number
+        set(S_IDENT, C_LETTER, S_IDENT);
+        set(S_IDENT, C_DIGIT, S_IDENT);
+        set(S_NUMBER, C_DIGIT, S_NUMBER);
+
+        // == <= >= !=
+        set(S_EQ, C_EQ, EMIT_CONSUME);
+        set(S_LT, C_EQ, EMIT_CONSUME);
+        set(S_GT, C_EQ, EMIT_CONSUME);
+        set(S_BANG, C_EQ, EMIT_CONSUME);
+
+        // comments
+        set(S_SLASH, C_SLASH, S_LINE);
+        set(S_SLASH, C_STAR, S_BLOCK);
+        fill(S_LINE, S_LINE);
+        set(S_LINE, C_NL, S_START);
+        set(S_LINE, C_EOF, END);
+        fill(S_BLOCK, S_BLOCK);
+        set(S_BLOCK, C_STAR, S_BLOCK_STAR);
+        set(S_BLOCK, C_EOF, END);
+        fill(S_BLOCK_STAR, S_BLOCK);
+        set(S_BLOCK_STAR, C_STAR, S_BLOCK_STAR);
+        set(S_BLOCK_STAR, C_SLASH, S_START);
+        set(S_BLOCK_STAR, C_EOF, END);
+    }
+
+    private ScanTable() {
+    }
+
+    private static void single(char ch, TokenType type) {
+        CLASS[ch] = C_SINGLE;
+        SINGLE[ch] = type;
+    }
+
+    private static void fill(int state, int next) {
+        for (int cls = 0; cls < CLASSES; cls++) NEXT[state * CLASSES + cls] = (byte) next;
+    }
+
+    private static void set(int state, int cls, int next) {
+        NEXT[state * CLASSES + cls] = (byte) next;
+    }
+
+    /**
+     * Char class of a char
+     *
+     * @param ch char or EOF
+     * @return class
+     */
+    static int classOf(int ch) {
+        if (ch < 0) return C_EOF;
+        return ch < 128 ? CLASS[ch] : C_OTHER;
+    }
+}
@@ -1,6 +1,8 @@
 package Scanner;
 
+import Data.LineIndex;
 import Data.Token;
+import Data.TokenBuffer;
 import Data.TokenType;
 
 import java.io.File;
@@ -15,178 +17,309 @@ import static Data.TokenType.*;
 public class Scanner {
 
     private final Input input;
-    private char c;
+    private final ScanMode mode;
+    private int c;
 
     private String file;
-    private int line;
-    private int column;
+    private final LineIndex lines;
 
+    // actual token
+    private TokenType type;
+    private int start;
+    private int length;
+    private int number;
     private Token token;
 
-    private String value;
-
     /**
      * Instantiates a new Scanner.
      *
      * @param filepath Input instance
      */
     public Scanner(String filepath) throws FileNotFoundException {
-        this.input = new Input(filepath);
-        file = new File(filepath).getName();
-        line = 1;
-        column = 0;
+        this(filepath, ScanMode.DIRECT);
+    }
+
+    /**
+     * Instantiates a new Scanner with the given implementation.
+     *
+     * @param filepath Input instance
+     * @param mode scanner implementation
+     */
+    public Scanner(String filepath, ScanMode mode) throws FileNotFoundException {
+        this(new Input(filepath), new File(filepath).getName(), mode);
     }
 
+    /**
+     * Instantiates a new Scanner for a source in memory.
+     *
+     * @param input source
+     * @param file file name for positions
+     * @param mode scanner implementation
+     */
+    public Scanner(Input input, String file, ScanMode mode) {
+        this.input = input;
+        this.mode = mode;
+        this.file = file;
+        lines = new LineIndex();
+    }
+
+    /**
+     * Return the actual token, the object is only created on request
+     *
+     * @return token
+     */
     public Token getToken() {
+        if (token == null) {
+            token = switch (type) {
+                case IDENT  -> new Token(type, file, lines, input, start, length);
+                case NUMBER -> new Token(type, file, lines, input, start, length, number);
+                default     -> new Token(type, file, lines, start);
+            };
+        }
         return token;
     }
 
     public String getValue() {
-        return value;
+        return getToken().getValue();
     }
 
+    /**
+     * Scan the whole file into a token buffer, the last token is EOF
+     *
+     * @param buffer token buffer
+     */
+    public void scan(TokenBuffer buffer) {
+        buffer.reset(input, file, lines);
+        getSym();
+        while (type != TokenType.EOF) {
+            buffer.add(type, start, length, type == NUMBER ? number : 0);
+            if (!hasNext()) break;
+            getSym();
+        }
+        buffer.add(type, start, length, 0);
+    }
 
     /**
      * Checks next Symbol
      */
     public void getSym() {
-        //reset value
-        value = "";
+        if (mode == ScanMode.TABLE) {
+            getSymTable();
+        } else {
+            getSymDirect();
+        }
+    }
 
+    /**
+     * Checks next Symbol with the hand written scanner
+     */
+    private void getSymDirect() {
         skipSpace();
         skipComment();
 
         // ident
         if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
-            int startColumn = column;
+            int begin = offset();
             do {
-                value += c;
                 loadNext();
             } while ((c >= 'a' && c <= 'z') ||
                     (c >= 'A' && c <= 'Z') ||
                     (c >= '0' && c <= '9'));
-            isKeywordorIdent(startColumn);
+            isKeywordorIdent(begin, offset() - begin);
         }
         // number
         else if (c >= '0' && c <= '9') {
-            int startColumn = column;
+            int begin = offset();
+            int value = 0;
             do {
-                value += c;
+                value = appendDigit(value, c - '0');
                 loadNext();
             } while ((c >= '0' && c <= '9'));
-            token = new Token(NUMBER, file, line, startColumn, value);
+            setToken(NUMBER, begin, offset() - begin);
+            number = value;
         }
         // (
         else if (c == '(') {
-            token = new Token(LPAREN, file, line, column);
+            setToken(LPAREN, offset(), 1);
             loadNext();
         }
         // )
         else if (c == ')') {
-            token = new Token(RPAREN, file, line, column);
+            setToken(RPAREN, offset(), 1);
             loadNext();
         }
         // +
         else if (c == '+') {
-            token = new Token(PLUS, file, line, column);
+            setToken(PLUS, offset(), 1);
             loadNext();
         }
         // -
         else if (c == '-') {
-            token = new Token(MINUS, file, line, column);
+            setToken(MINUS, offset(), 1);
             loadNext();
         }
         // *
         else if (c == '*') {
-            token = new Token(TIMES, file, line, column);
+            setToken(TIMES, offset(), 1);
             loadNext();
         }
         // /
         else if (c == '/') {
-            token = new Token(SLASH, file, line, column);
+            setToken(SLASH, offset(), 1);
             loadNext();
         }
         // ,
         else if (c == ',') {
-            token = new Token(COMMA, file, line, column);
+            setToken(COMMA, offset(), 1);
             loadNext();
         }
         // ;
         else if (c == ';') {
-            token = new Token(SEMI, file, line, column);
+            setToken(SEMI, offset(), 1);
             loadNext();
         }
         // =
         else if (c == '=') {
-            token = new Token(ASSIGN, file, line, column);
+            setToken(ASSIGN, offset(), 1);
             // ==
-            if (input.getBuffer() == '=') {
-                token = new Token(EQUAL, file, line, column - 1);
+            if (input.peek() == '=') {
+                setToken(EQUAL, offset(), 2);
                 loadNext();
             }
             loadNext();
         }
         // >
         else if (c == '>') {
-            token = new Token(GREATER, file, line, column);
+            setToken(GREATER, offset(), 1);
             // >=
-            if (input.getBuffer() == '=') {
-                token = new Token(GR_EQ, file, line, column - 1);
+            if (input.peek() == '=') {
+                setToken(GR_EQ, offset(), 2);
                 loadNext();
             }
             loadNext();
         }
         // <
         else if (c == '<') {
-            token = new Token(SMALLER, file, line, column);
+            setToken(SMALLER, offset(), 1);
             // <=
-            if (input.getBuffer() == '=') {
-                token = new Token(SM_EQ, file, line, column - 1);
+            if (input.peek() == '=') {
+                setToken(SM_EQ, offset(), 2);
                 loadNext();
             }
             loadNext();
         }
         // !=
-        else if (c == '!' && input.getBuffer() == '=') {
-            token = new Token(NEQUAL, file, line, column);
+        else if (c == '!' && input.peek() == '=') {
+            setToken(NEQUAL, offset(), 2);
             loadNext();
             loadNext();
         }
         // {
         else if (c == '{') {
-            token = new Token(LCBRACKET, file, line, column);
+            setToken(LCBRACKET, offset(), 1);
             loadNext();
         }
         // }
         else if (c == '}') {
-            token = new Token(RCBRACKET, file, line, column);
+            setToken(RCBRACKET, offset(), 1);
             loadNext();
         }
+        // end of file after spaces or comments
+        else if (c == Input.EOF) {
+            setToken(TokenType.EOF, input.getLength(), 0);
+        }
         // OTHER
         else{
-            token = new Token(OTHER, file, line, column);
+            setToken(OTHER, offset(), 1);
             loadNext();
         }
     }
 
     /**
-     * Checks keyword or ident
+     * Checks next Symbol with the table driven DFA, see ScanTable
+     */
+    private void getSymTable() {
+        int state = ScanTable.S_START;
+        int begin = offset();
+        while (true) {
+            int cls = ScanTable.classOf(c);
+            int next = ScanTable.NEXT[state * ScanTable.CLASSES + cls];
+            if (next >= 0) {
+                if (cls == ScanTable.C_NL) newLine();
+                loadNext();
+                state = next;
+                if (state == ScanTable.S_START) begin = offset();
+            } else if (next == ScanTable.EMIT) {
+                int end = offset();
+                if (state == ScanTable.S_IDENT) {
+                    isKeywordorIdent(begin, end - begin);
+                } else {
+                    setToken(ScanTable.ACCEPT[state], begin, end - begin);
+                    if (state == ScanTable.S_NUMBER) number = parseNumber(begin, end);
+                }
+                return;
+            } else if (next == ScanTable.EMIT_CONSUME) {
+                TokenType accepted = state != ScanTable.S_START ? ScanTable.ACCEPT_CONSUME[state]
+                        : c < 128 ? ScanTable.SINGLE[c] : OTHER;
+                loadNext();
+                setToken(accepted, begin, offset() - begin);
+                return;
+            } else {
+                setToken(TokenType.EOF, input.getLength(), 0);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Parse the digits of a number token
      *
-     * @param column the beginning column
+     * @param begin offset of the first digit
+     * @param end offset after the last digit
+     * @return int value or TokenBuffer.OVERFLOW
      */
-    private void isKeywordorIdent(int column){
-        switch (value) {
-            case "class"    -> token = new Token(CLASS, file, line, column);
-            case "public"   -> token = new Token(PUBLIC, file, line, column);
-            case "final"    -> token = new Token(FINAL, file, line, column);
-            case "void"     -> token = new Token(VOID, file, line, column);
-            case "int"      -> token = new Token(INT, file, line, column);
-            case "if"       -> token = new Token(IF, file, line, column);
-            case "else"     -> token = new Token(ELSE, file, line, column);
-            case "while"    -> token = new Token(WHILE, file, line, column);
-            case "return"   -> token = new Token(RETURN, file, line, column);
-            default         -> token = new Token(IDENT, file, line, column, value);
+    private int parseNumber(int begin, int end) {
+        int value = 0;
+        for (int i = begin; i < end; i++) {
+            value = appendDigit(value, input.charAt(i) - '0');
         }
+        return value;
+    }
+
+    /**
+     * Append a digit to the value of a number, values above Integer.MAX_VALUE are an overflow
+     *
+     * @param value value of the digits before
+     * @param digit next digit
+     * @return int value or TokenBuffer.OVERFLOW
+     */
+    private static int appendDigit(int value, int digit) {
+        if (value == TokenBuffer.OVERFLOW || value > (Integer.MAX_VALUE - digit) / 10) return TokenBuffer.OVERFLOW;
+        return value * 10 + digit;
+    }
+
+    /**
+     * Checks keyword or ident
+     *
+     * @param begin offset of the word
+     * @param length length of the word
+     */
+    private void isKeywordorIdent(int begin, int length){
+        setToken(Keywords.lookup(input, begin, length), begin, length);
+    }
+
+    /**
+     * Set the actual token
+     *
+     * @param type token type
+     * @param begin offset of the token
+     * @param length length of the token
+     */
+    private void setToken(TokenType type, int begin, int length){
+        this.type = type;
+        this.start = begin;
+        this.length = length;
+        this.token = null;
     }
 
     /**
@@ -194,7 +327,8 @@ public class Scanner {
      */
     private void skipSpace(){
         // ignore space
-        while (c <= ' '){
+        while (c != Input.EOF && c <= ' '){
+            if (c == '\n') newLine();
             loadNext();
         }
     }
@@ -204,10 +338,12 @@ public class Scanner {
      */
     private void skipComment(){
         // ignore comment /* */ and /** */
-        if (c == '/' && input.getBuffer() == '*') {
-            loadNext();  //skip
+        if (c == '/' && input.peek() == '*') {
+            loadNext();  //skip "/*", the "*" can not close the comment
+            loadNext();
             int pre = ' ';
-            while (!(pre == '*' && c == '/')) {
+            while (c != Input.EOF && !(pre == '*' && c == '/')) {
+                if (c == '\n') newLine();
                 pre = c;
                 loadNext();
             }
@@ -215,46 +351,51 @@ public class Scanner {
         }
 
         // ignore comment //
-        if (c == '/' && input.getBuffer() == '/') {
-            while (!(c == '\n' || c == 65535)) {
+        if (c == '/' && input.peek() == '/') {
+            while (!(c == '\n' || c == Input.EOF)) {
                 loadNext();
             }
+            if (c == '\n') newLine();
             loadNext();
         }
 
         skipSpace();
 
-        if ((c == '/' && input.getBuffer() == '*')||(c == '/' && input.getBuffer() == '/')) {
+        if ((c == '/' && input.peek() == '*')||(c == '/' && input.peek() == '/')) {
             skipComment();
         }
     }
 
     /**
-     * Load next char from file and increments the column + checks if new lines begin
+     * Load next char from file
      */
     private void loadNext(){
-        c = input.next();
-        column++;
-        if (c == '\n') setNewline();
+        c = input.advance();
+    }
+
+    /**
+     * Newline in actual char, the next line begins after it. Newlines only occur
+     * in spaces and comments, so tokens never need to check for them.
+     */
+    private void newLine(){
+        lines.add(offset() + 1);
     }
 
     /**
-     * If new line begins, the line is incremented and column is set to 0
+     * Offset of the actual char in the source
      */
-    private void setNewline() {
-        line++;
-        column = 0;
+    private int offset(){
+        return c == Input.EOF ? input.getPosition() : input.getPosition() - 1;
     }
 
     /**
-     * Interface for input check, if the file has a next char or the EOF is reached
+     * Interface for input check, if the actual char is not yet scanned or the EOF is reached
      */
     public boolean hasNext(){
-        if(input.hasNext()){
+        if(c != Input.EOF){
             return true;
         }else{
-            column++;
-            token = new Token(TokenType.EOF, file, line, column);
+            setToken(TokenType.EOF, input.getLength(), 0);
             return false;
         }
     }
@@ -1,14 +1,25 @@
 package AbstractSyntaxTree;
 
+import Helper.SemanticAnalyzer;
 import Parser.Parser;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 
 public class ASTTests {
 
     ASTPrinter printer = new ASTPrinter();
 
+    @TempDir
+    Path tmp;
+
     // files
     private static final String FSU_TEST            = "./src/test/resources/pass_test/Test.java";
 
@@ -20,4 +31,30 @@ public class ASTTests {
         printer.printDot(parser.getAst());
     }
 
+    @Test
+    public void Long_method_walk() throws IOException {
+        int statements = 50000;
+        StringBuilder source = new StringBuilder("class Long {\n public void run(int x) {\n  int y;\n  y = 0;\n");
+        for (int i = 0; i < statements; i++) {
+            source.append("  while (y < x) { y = y + 1; }\n");
+        }
+        source.append(" }\n}\n");
+        Path file = tmp.resolve("Long.java");
+        Files.writeString(file, source);
+
+        Parser parser = new Parser(file.toString());
+        parser.parseFile();
+        assertFalse(new SemanticAnalyzer().analyze(parser.getAst(), parser.getSymbolTable()));
+
+        int[] count = new int[2];
+        ASTWalker.walk(parser.getAst().getMethods().getNodes().get(0).getLink(), new ASTVisitor() {
+            @Override
+            public void endStatement(ASTNode node) {
+                count[node.getNodeClass() == ASTClass.WHILE ? 0 : 1]++;
+            }
+        });
+        assertEquals(statements, count[0]);
+        assertEquals(statements + 1, count[1]);
+    }
+
 }
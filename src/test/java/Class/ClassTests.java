@@ -1,12 +1,34 @@
 package Class;
 
 import AbstractSyntaxTree.ASTPrinter;
+import ClassData.Method;
+import ClassFile.ClassGenerator;
 import ClassFile.ClassWriter;
+import Compiler.CompileResult;
+import Compiler.JavaSSTCompiler;
+import ClassFile.ConstantPoolBuilder;
+import Data.TokenBuffer;
 import Helper.SemanticAnalyzer;
 import Parser.Parser;
+import Scanner.Input;
+import Scanner.ScanMode;
+import Scanner.Scanner;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ClassTests {
 
@@ -17,6 +39,7 @@ public class ClassTests {
     // files
     private static final String CLASS_FILE_2        = "./src/test/resources/pass_test/ClassTest2.java";
     private static final String FSU_TEST            = "./src/test/resources/pass_test/Test.java";
+    private static final String CALL_TEST           = "./src/test/resources/pass_test/CallTest.java";
 
     @Test
     public void FSUTest_complete() throws FileNotFoundException {
@@ -28,6 +51,289 @@ public class ClassTests {
         runTest(CLASS_FILE_2, true, true, true);
     }
 
+    @Test
+    public void CallTest_arguments_and_call_statements(@TempDir Path out) throws Exception {
+        Parser parser = new Parser(CALL_TEST);
+        parser.parseFile();
+        assertFalse(semanticAnalyzer.analyze(parser.getAst(), parser.getSymbolTable()));
+        ClassWriter.writeClassFile(out, "CallTest", new ClassWriter(parser.getAst()).genByteArray());
+        byte[] bytes = Files.readAllBytes(out.resolve("CallTest.class"));
+        Class<?> c = new ClassLoader() {
+            Class<?> define() { return defineClass("CallTest", bytes, 0, bytes.length); }
+        }.define();
+        Object o = c.getDeclaredConstructor().newInstance();
+        assertEquals(13, c.getMethod("run", int.class).invoke(o, 4));
+    }
+
+    @Test
+    public void Classes_pass_the_verifier() throws Exception {
+        // the test JVM runs with verification, instantiation links and verifies all methods
+        JavaSSTCompiler compiler = new JavaSSTCompiler();
+        for (String file : List.of(CLASS_FILE_2, FSU_TEST, CALL_TEST)) {
+            CompileResult result = compiler.compileFile(file);
+            assertTrue(result.isSuccess(), file);
+            define(result).getDeclaredConstructor().newInstance();
+        }
+
+        // branch in a void method without return, unreachable code after if-else
+        CompileResult result = compiler.compile("Frames.java", "class Frames { int x;"
+                + " public void m(int a) { if (a < 1) { x = 1; } else { return; } }"
+                + " public int f(int a) { while (a < 3) { a = a + 1; } return a; }"
+                + " public int h(int a) { if (a < 1) { return 1; } else { return 2; } return 3; } }");
+        assertTrue(result.isSuccess());
+        Class<?> c = define(result);
+        Object o = c.getDeclaredConstructor().newInstance();
+        c.getMethod("m", int.class).invoke(o, 0);
+        java.lang.reflect.Field x = c.getDeclaredField("x");
+        x.setAccessible(true);
+        assertEquals(1, x.get(o));
+        assertEquals(3, c.getMethod("f", int.class).invoke(o, 0));
+        assertEquals(2, c.getMethod("h", int.class).invoke(o, 5));
+    }
+
+    @Test
+    public void If_branch_with_nested_return_jumps_over_else() throws Exception {
+        // the return in the while does not end the if-branch
+        CompileResult result = new JavaSSTCompiler().compile("Nested.java", "class Nested {"
+                + " public int m(int a) { if (a < 1) { while (a < 0) { return 1; } a = 2; } else { a = 3; } return a; } }");
+        assertTrue(result.isSuccess());
+        Class<?> c = define(result);
+        Object o = c.getDeclaredConstructor().newInstance();
+        assertEquals(2, c.getMethod("m", int.class).invoke(o, 0));
+        assertEquals(3, c.getMethod("m", int.class).invoke(o, 5));
+    }
+
+    @Test
+    public void Branches_over_32K_are_widened() throws Exception {
+        // loop body of 36000 bytes - the loop exit and the jump back need goto_w
+        StringBuilder source = new StringBuilder("class Big { public int m(int a) { int b; b = 0; while (a < 3) { a = a + 1;");
+        source.append(" b = b + 1;".repeat(9000));
+        source.append(" } return b; } }");
+        CompileResult result = new JavaSSTCompiler().compile("Big.java", source);
+        assertTrue(result.isSuccess());
+        Class<?> c = define(result);
+        assertEquals(27000, c.getMethod("m", int.class).invoke(c.getDeclaredConstructor().newInstance(), 0));
+    }
+
+    @Test
+    public void Huge_methods_are_split() throws Exception {
+        StringBuilder source = new StringBuilder("class Huge { int x; public int m(int a) { int b; int c; b = 0; c = 0;"
+                + " while (a < 3) { a = a + 1;");
+        source.append(" b = b + a; c = c + 1;".repeat(4000));
+        source.append(" } if (b > c) { x = b - c; } else { x = 0; } return b + c; } }");
+
+        ClassGenerator generator = generate(source, ClassGenerator.HUGE_METHOD_LIMIT);
+        assertTrue(generator.getMethods().size() > 3);
+        assertTrue(maxCodeLength(generator) <= ClassGenerator.HUGE_METHOD_LIMIT);
+
+        JavaSSTCompiler compiler = new JavaSSTCompiler();
+        Class<?> c = define(compiler.compile("Huge.java", source));
+        Object o = c.getDeclaredConstructor().newInstance();
+        // a = 1..3 - b = 4000 * (1 + 2 + 3), c = 3 * 4000
+        assertEquals(36000, c.getMethod("m", int.class).invoke(o, 0));
+        java.lang.reflect.Field x = c.getDeclaredField("x");
+        x.setAccessible(true);
+        assertEquals(12000, x.get(o));
+
+        // same behavior with a small limit
+        assertTrue(maxCodeLength(generate(source, 60)) <= 60);
+        c = define(new JavaSSTCompiler(ScanMode.DIRECT, false, false, 60).compile("Huge.java", source));
+        assertEquals(36000, c.getMethod("m", int.class).invoke(c.getDeclaredConstructor().newInstance(), 0));
+    }
+
+    @Test
+    public void Calls_of_split_methods_are_split() throws Exception {
+        // 8 assigned locals, the calls of the first split methods do not fit into one method
+        StringBuilder source = new StringBuilder("class Long { public int m(int a) { int b; int c; int d; int e; int f; int g; int h;"
+                + " b = 0; c = 0; d = 0; e = 0; f = 0; g = 0; h = 0;");
+        source.append(" a = a + 1; b = b + a; c = c + b; d = d + 1; e = e + d; f = f + 1; g = g + f; h = h + 1;".repeat(12500));
+        source.append(" return a + b + c + d + e + f + g + h; } }");
+
+        int a = 3, b = 0, c = 0, d = 0, e = 0, f = 0, g = 0, h = 0;
+        for (int i = 0; i < 12500; i++) {
+            a = a + 1; b = b + a; c = c + b; d = d + 1; e = e + d; f = f + 1; g = g + f; h = h + 1;
+        }
+        List<Object> expected = List.of(a + b + c + d + e + f + g + h);
+
+        ClassGenerator generator = generate(source, ClassGenerator.HUGE_METHOD_LIMIT);
+        assertTrue(maxCodeLength(generator) <= ClassGenerator.HUGE_METHOD_LIMIT);
+        assertEquals(expected, invoke(new JavaSSTCompiler().compile("Long.java", source), "m", 3));
+
+        assertTrue(maxCodeLength(generate(source, 300)) <= 300);
+        assertEquals(expected, invoke(new JavaSSTCompiler(ScanMode.DIRECT, false, false, 300).compile("Long.java", source), "m", 3));
+    }
+
+    @Test
+    public void Large_expressions_are_outlined() throws Exception {
+        String sum = "a * 2" + " + (a - f(a, a + 1 + b + a * b))".repeat(400);
+        String source = "class Expr { int x; public int f(int p, int q) { return p - q; }"
+                + " public int m(int a) { int b; b = 3; x = " + sum + "; b = f(" + sum + ", x);"
+                + " while (b < " + sum + ") { b = b + 1; } return " + sum + " + x + b; } }";
+        Object expected = invoke(new JavaSSTCompiler().compile("Expr.java", source), "m", 5);
+        for (int max : new int[]{ 60, 120, 300 }) {
+            assertTrue(maxCodeLength(generate(source, max)) <= max, "limit " + max);
+            assertEquals(expected, invoke(new JavaSSTCompiler(ScanMode.DIRECT, false, false, max).compile("Expr.java", source), "m", 5));
+        }
+    }
+
+    @Test
+    public void Random_classes_fit_the_limit() throws Exception {
+        Random random = new Random(25);
+        int fitting = 0;
+        for (int i = 0; i < 100; i++) {
+            String source = randomClass(random);
+            CompileResult plain = new JavaSSTCompiler().compile("R.java", source);
+            assertTrue(plain.isSuccess(), source + plain.getDiagnostics());
+            for (int max : new int[]{ 300, 120 }) {
+                CompileResult split = new JavaSSTCompiler(ScanMode.DIRECT, false, false, max).compile("R.java", source);
+                if (!split.isSuccess()) {
+                    // only methods that can not be split below the limit fail
+                    assertTrue(max < 300, split.getDiagnostics() + source);
+                    assertTrue(split.getDiagnostics().stream().allMatch(d -> d.getMessage().contains("can not be split below " + max)),
+                            split.getDiagnostics().toString());
+                    continue;
+                }
+                if (max < 300) {
+                    fitting++;
+                }
+                assertTrue(maxCodeLength(generate(source, max)) <= max, source);
+                for (int a = -2; a < 3; a++) {
+                    assertEquals(invoke(plain, "m3", a), invoke(split, "m3", a), source);
+                }
+            }
+        }
+        assertTrue(fitting > 50, fitting + " of 100 classes fit 120 bytes");
+    }
+
+    /**
+     * random class, m0 to m3 with locals, fields, loops, nested branches and calls of m0,
+     * each class assigns its own subset of the locals and every third class returns in branches
+     */
+    private static String randomClass(Random random) {
+        String[] targets = Arrays.copyOf(new String[]{ "x", "y", "b", "c", "d", "a" }, 2 + random.nextInt(5));
+        boolean returns = random.nextInt(3) == 0;
+        StringBuilder source = new StringBuilder("class R { final int K = 7; int x; int y;");
+        source.append(" public int m0(int p, int q) { return p * 3 - q; }");
+        for (int m = 1; m <= 3; m++) {
+            source.append(" public int m").append(m).append("(int a) { int b; int c; int d; int w1; int w2;");
+            source.append(" b = 1; c = 2; d = 3; w1 = 0; w2 = 0; x = a; y = 1;");
+            randomStatements(random, source, 10 + random.nextInt(30), 0, targets, returns);
+            source.append(" return ").append(randomExpression(random, 2)).append("; }");
+        }
+        return source.append(" }").toString();
+    }
+
+    private static void randomStatements(Random random, StringBuilder source, int count, int depth, String[] targets, boolean returns) {
+        for (int i = 0; i < count; i++) {
+            int kind = random.nextInt(depth < 2 ? 10 : 7);
+            if (kind == 6 && !returns) {
+                kind = 0;
+            }
+            if (kind < 5) {
+                source.append(' ').append(targets[random.nextInt(targets.length)]).append(" = ")
+                        .append(randomExpression(random, 3)).append(';');
+            } else if (kind == 5) {
+                source.append(" m0(").append(randomExpression(random, 1)).append(", ").append(randomExpression(random, 1)).append(");");
+            } else if (kind == 6) {
+                source.append(" if (").append(randomExpression(random, 1)).append(" > ").append(random.nextInt(50)).append(") { return b; } else {");
+                randomStatements(random, source, 1 + random.nextInt(2), depth + 1, targets, returns);
+                source.append(" }");
+            } else if (kind < 9) {
+                source.append(" if (").append(randomExpression(random, 1)).append(" < ").append(randomExpression(random, 1)).append(") {");
+                randomStatements(random, source, 1 + random.nextInt(5), depth + 1, targets, returns);
+                source.append(" } else {");
+                randomStatements(random, source, 1 + random.nextInt(5), depth + 1, targets, returns);
+                source.append(" }");
+            } else {
+                // the counter of a loop is only assigned by the loop
+                String w = "w" + (depth + 1);
+                source.append(' ').append(w).append(" = 0; while (").append(w).append(" < 3) {");
+                randomStatements(random, source, 1 + random.nextInt(5), depth + 1, targets, returns);
+                source.append(' ').append(w).append(" = ").append(w).append(" + 1; }");
+            }
+        }
+    }
+
+    private static String randomExpression(Random random, int depth) {
+        String[] operands = { "a", "b", "c", "d", "x", "y", "K", "w1", "w2" };
+        if (depth == 0 || random.nextInt(3) == 0) {
+            return random.nextBoolean() ? operands[random.nextInt(operands.length)] : Integer.toString(random.nextInt(100));
+        }
+        return switch (random.nextInt(5)) {
+            case 0 -> "m0(" + randomExpression(random, depth - 1) + ", " + randomExpression(random, depth - 1) + ")";
+            case 1 -> "(" + randomExpression(random, depth - 1) + " - " + randomExpression(random, depth - 1) + ")";
+            case 2 -> randomExpression(random, depth - 1) + " * " + randomExpression(random, depth - 1);
+            default -> randomExpression(random, depth - 1) + " + " + randomExpression(random, depth - 1);
+        };
+    }
+
+    /**
+     * generate a class with a method size limit
+     */
+    private ClassGenerator generate(CharSequence source, int maxMethodSize) throws FileNotFoundException {
+        TokenBuffer tokens = new TokenBuffer();
+        new Scanner(new Input(source), "Split.java", ScanMode.DIRECT).scan(tokens);
+        Parser parser = new Parser(tokens);
+        parser.parseFile();
+        assertFalse(semanticAnalyzer.analyze(parser.getAst(), parser.getSymbolTable()));
+        ClassGenerator generator = new ClassGenerator(parser.getAst());
+        generator.setMaxMethodSize(maxMethodSize);
+        generator.generate();
+        assertTrue(generator.getDiagnostics().isEmpty(), generator.getDiagnostics().toString());
+        return generator;
+    }
+
+    private static int maxCodeLength(ClassGenerator generator) {
+        int max = 0;
+        for (Method method : generator.getMethods()) {
+            max = Math.max(max, method.getAttributes().get(0).getCodeLength());
+        }
+        return max;
+    }
+
+    /**
+     * @return result of the method with the argument and the fields x and y
+     */
+    private static List<Object> invoke(CompileResult result, String method, int a) throws Exception {
+        assertTrue(result.isSuccess(), result.getDiagnostics().toString());
+        Class<?> c = define(result);
+        Object o = c.getDeclaredConstructor().newInstance();
+        List<Object> values = new ArrayList<>();
+        values.add(c.getMethod(method, int.class).invoke(o, a));
+        for (java.lang.reflect.Field field : c.getDeclaredFields()) {
+            if (field.getName().equals("x") || field.getName().equals("y")) {
+                field.setAccessible(true);
+                values.add(field.get(o));
+            }
+        }
+        return values;
+    }
+
+    private static Class<?> define(CompileResult result) {
+        byte[] bytes = result.getClassFile();
+        return new ClassLoader() {
+            Class<?> define() { return defineClass(result.getClassName(), bytes, 0, bytes.length); }
+        }.define();
+    }
+
+    @Test
+    public void Constant_pool_deduplicates_entries() {
+        ConstantPoolBuilder pool = new ConstantPoolBuilder();
+        short ref = pool.fieldRef("A", "x", "I");
+        assertEquals(6, pool.size());                               // A, Class, x, I, NameAndType, Fieldref
+        assertEquals(ref, pool.fieldRef("A", "x", "I"));
+        assertEquals(pool.utf8("I"), pool.utf8("I"));
+        assertEquals(pool.classRef("A"), pool.classRef("A"));
+        assertEquals(6, pool.size());
+
+        short method = pool.methodRef("A", "x", "I");
+        assertNotEquals(ref, method);
+        assertEquals(7, pool.size());
+        assertEquals(pool.integer(7), pool.integer(7));
+        assertEquals(8, pool.size());
+        assertEquals("I", pool.get(pool.utf8("I")).getsValue());
+    }
+
 
     private void runTest(String filePath, Boolean printAST, Boolean DebugModeSA, Boolean DebugModeCF) throws FileNotFoundException {
         Parser parser = new Parser(filePath);
@@ -0,0 +1,73 @@
+package Compiler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchCompilerTests {
+
+    // inputs
+    private static final String PASS_DIR            = "./src/test/resources/pass_test";
+    private static final String SEMANTIC_GLOB       = "src/test/resources/semantic_test/*.java";
+
+    @TempDir
+    Path out;
+
+    @Test
+    public void Collect_directories_and_globs() throws IOException {
+        List<Path> files = BatchCompiler.collect(List.of(PASS_DIR, SEMANTIC_GLOB));
+        assertEquals(7, files.size());
+        assertEquals(4, BatchCompiler.collect(List.of(SEMANTIC_GLOB)).size());
+        assertEquals(3, BatchCompiler.collect(List.of("src/test/resources/*/*l*Test.java")).size());
+    }
+
+    @Test
+    public void Batch_compile() throws IOException {
+        List<Path> files = BatchCompiler.collect(List.of(PASS_DIR, SEMANTIC_GLOB));
+        List<CompileResult> results = new BatchCompiler(new JavaSSTCompiler(), 4).compile(files, out);
+
+        assertEquals(files.size(), results.size());
+        for (int i = 0; i < files.size(); i++) {
+            CompileResult result = results.get(i);
+            assertEquals(files.get(i).toString(), result.getFileName());
+            boolean pass = result.getFileName().contains("pass_test");
+            assertEquals(pass, result.isSuccess(), result.getFileName());
+            if (pass) {
+                assertArrayEquals(result.getClassFile(), Files.readAllBytes(out.resolve(result.getClassName() + ".class")));
+            } else {
+                assertFalse(result.getDiagnostics().isEmpty());
+            }
+        }
+    }
+
+    @Test
+    public void Duplicate_class_names_fail() throws IOException {
+        Path src = out.resolve("src");
+        Files.createDirectories(src);
+        Files.writeString(src.resolve("A.java"), "class Same { public void m() { return; } }");
+        Files.writeString(src.resolve("B.java"), "class Same { public int m() { return 1; } }");
+        Files.writeString(src.resolve("C.java"), "class Other { public void m() { return; } }");
+        Path classes = out.resolve("classes");
+
+        List<CompileResult> results = new BatchCompiler(new JavaSSTCompiler(), 4).compile(BatchCompiler.collect(List.of(src.toString())), classes);
+        assertFalse(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertTrue(results.get(0).getDiagnostics().get(0).getMessage().contains("Class Same"));
+        assertTrue(results.get(2).isSuccess());
+        assertFalse(Files.exists(classes.resolve("Same.class")));
+        assertTrue(Files.exists(classes.resolve("Other.class")));
+    }
+
+    @Test
+    public void Missing_file_is_reported() throws IOException {
+        List<CompileResult> results = new BatchCompiler(new JavaSSTCompiler()).compile(List.of(out.resolve("Missing.java")), out);
+        assertFalse(results.get(0).isSuccess());
+        assertEquals(1, results.get(0).getDiagnostics().size());
+    }
+}
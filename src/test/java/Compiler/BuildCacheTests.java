@@ -0,0 +1,100 @@
+package Compiler;
+
+import Helper.XXHash64;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BuildCacheTests {
+
+    // inputs
+    private static final String PASS_DIR            = "./src/test/resources/pass_test";
+
+    @TempDir
+    Path tmp;
+
+    @Test
+    public void XXHash64_reference_values() {
+        assertEquals(0xEF46DB3751D8E999L, XXHash64.hash(new byte[0], 0));
+        assertEquals(0xD24EC4F1A98C6E5BL, XXHash64.hash("a".getBytes(StandardCharsets.US_ASCII), 0));
+        assertEquals(0x44BC2CF5AD770999L, XXHash64.hash("abc".getBytes(StandardCharsets.US_ASCII), 0));
+        assertEquals(0xFBCEA83C8A378BF1L, XXHash64.hash("Nobody inspects the spammish repetition".getBytes(StandardCharsets.US_ASCII), 0));
+    }
+
+    @Test
+    public void Second_build_is_served_from_cache() throws IOException {
+        JavaSSTCompiler compiler = new JavaSSTCompiler();
+        List<Path> files = BatchCompiler.collect(List.of(PASS_DIR));
+        Path first = tmp.resolve("first");
+        Path second = tmp.resolve("second");
+
+        BuildCache cache = new BuildCache(tmp.resolve("cache"), compiler);
+        BatchCompiler batchCompiler = new BatchCompiler(compiler, 4);
+        batchCompiler.setCache(cache);
+        List<CompileResult> compiled = batchCompiler.compile(files, first);
+        assertEquals(0, cache.getHits());
+        assertEquals(files.size(), cache.getMisses());
+
+        List<CompileResult> cached = batchCompiler.compile(files, second);
+        assertEquals(files.size(), cache.getHits());
+        assertTrue(cache.getSourceBytesSaved() > 0);
+        for (int i = 0; i < files.size(); i++) {
+            assertTrue(cached.get(i).isSuccess());
+            assertEquals(compiled.get(i).getClassName(), cached.get(i).getClassName());
+            assertArrayEquals(compiled.get(i).getClassFile(), cached.get(i).getClassFile());
+            assertArrayEquals(compiled.get(i).getClassFile(), Files.readAllBytes(second.resolve(cached.get(i).getClassName() + ".class")));
+        }
+    }
+
+    @Test
+    public void Changed_source_is_compiled_again() throws IOException {
+        JavaSSTCompiler compiler = new JavaSSTCompiler();
+        Path source = tmp.resolve("A.java");
+        Path out = tmp.resolve("out");
+        BuildCache cache = new BuildCache(tmp.resolve("cache"), compiler);
+        BatchCompiler batchCompiler = new BatchCompiler(compiler, 1);
+        batchCompiler.setCache(cache);
+
+        Files.writeString(source, "class A { public void m() { return; } }");
+        assertTrue(batchCompiler.compile(List.of(source), out).get(0).isSuccess());
+        byte[] before = Files.readAllBytes(out.resolve("A.class"));
+
+        Files.writeString(source, "class A { final int x = 1; public void m() { return; } }");
+        CompileResult result = batchCompiler.compile(List.of(source), out).get(0);
+        assertTrue(result.isSuccess());
+        assertEquals(0, cache.getHits());
+        assertEquals(2, cache.getMisses());
+
+        // the cache entry of the first version is not changed by the new class file
+        Files.writeString(source, "class A { public void m() { return; } }");
+        assertArrayEquals(before, batchCompiler.compile(List.of(source), tmp.resolve("out2")).get(0).getClassFile());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void Key_collision_is_a_miss() throws IOException {
+        JavaSSTCompiler compiler = new JavaSSTCompiler();
+        BuildCache cache = new BuildCache(tmp.resolve("cache"), compiler);
+        byte[] a = "class A { public void m() { return; } }".getBytes(StandardCharsets.UTF_8);
+        byte[] b = "class B { public void m() { return; } }".getBytes(StandardCharsets.UTF_8);
+        CompileResult result = compiler.compile("A.java", new String(a, StandardCharsets.UTF_8));
+
+        // same key for another source of the same length
+        long key = cache.key(a);
+        cache.store(key, a, result);
+        assertNull(cache.lookup(key, tmp.resolve("B.java"), b));
+
+        CompileResult hit = cache.lookup(key, tmp.resolve("A.java"), a);
+        assertNotNull(hit);
+        assertEquals("A", hit.getClassName());
+        assertEquals(result.getClassFile().length, cache.getClassBytesSaved());
+        assertArrayEquals(result.getClassFile(), hit.getClassFile());
+    }
+}
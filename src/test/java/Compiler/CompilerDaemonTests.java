@@ -0,0 +1,145 @@
+package Compiler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompilerDaemonTests {
+
+    // inputs
+    private static final Path PASS_FILE      = Path.of("src/test/resources/pass_test/CallTest.java").toAbsolutePath();
+    private static final Path ERROR_FILE     = Path.of("src/test/resources/semantic_test/returnTest.java").toAbsolutePath();
+
+    @TempDir
+    Path out;
+
+    @TempDir
+    Path tokens;
+
+    @Test
+    public void Client_compiles_in_daemon() throws Exception {
+        CompilerDaemon daemon = new CompilerDaemon(0, tokens);
+        Thread thread = new Thread(daemon::run);
+        thread.start();
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            PrintStream stream = new PrintStream(output, true, StandardCharsets.UTF_8);
+
+            assertEquals(0, CompilerClient.send(daemon.getPort(), tokens, new String[]{PASS_FILE.toString()}, out, stream));
+            byte[] expected = new JavaSSTCompiler().compileFile(PASS_FILE.toString()).getClassFile();
+            assertArrayEquals(expected, Files.readAllBytes(out.resolve("CallTest.class")));
+
+            assertEquals(1, CompilerClient.send(daemon.getPort(), tokens, new String[]{ERROR_FILE.toString()}, out, stream));
+            assertTrue(output.toString(StandardCharsets.UTF_8).contains("returnTest.java("));
+
+            assertEquals(0, CompilerClient.send(daemon.getPort(), tokens, new String[]{CompilerClient.STOP}, out, stream));
+        } finally {
+            daemon.stop();
+            thread.join(10_000);
+        }
+        assertFalse(thread.isAlive());
+        assertThrows(IOException.class, () -> CompilerClient.send(daemon.getPort(), tokens, new String[0], out, System.out));
+    }
+
+    @Test
+    public void Requests_need_the_token() throws Exception {
+        CompilerDaemon daemon = new CompilerDaemon(0, tokens);
+        Thread thread = new Thread(daemon::run);
+        thread.start();
+        try {
+            Path tokenFile = CompilerClient.tokenFile(tokens, daemon.getPort());
+            if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+                assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(tokenFile)));
+            }
+            String token = Files.readString(tokenFile);
+
+            assertEquals("X 2", request(daemon.getPort(), "wrong", out.toString(), "1", CompilerClient.STOP));
+            assertEquals("X 2", request(daemon.getPort(), token, out.toString(), "x", CompilerClient.STOP));
+            assertEquals("X 2", request(daemon.getPort(), token, out.toString(), "-1"));
+            assertTrue(thread.isAlive());
+
+            assertEquals("X 0", request(daemon.getPort(), token, out.toString(), "1", CompilerClient.STOP));
+            thread.join(10_000);
+            assertFalse(thread.isAlive());
+            assertFalse(Files.exists(tokenFile));
+        } finally {
+            daemon.stop();
+            thread.join(10_000);
+        }
+    }
+
+    @Test
+    public void Long_or_stalled_requests_are_closed() throws Exception {
+        CompilerDaemon daemon = new CompilerDaemon(0, tokens, 500);
+        Thread thread = new Thread(daemon::run);
+        thread.start();
+        try {
+            assertNull(request(daemon.getPort(), "x".repeat(1000), out.toString(), "0"));
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), daemon.getPort())) {
+                socket.setSoTimeout(10_000);
+                assertEquals(-1, socket.getInputStream().read());
+            }
+            String token = Files.readString(CompilerClient.tokenFile(tokens, daemon.getPort()));
+            assertEquals("X 0", request(daemon.getPort(), token, out.toString(), "1", CompilerClient.STOP));
+        } finally {
+            daemon.stop();
+            thread.join(10_000);
+        }
+    }
+
+    @Test
+    public void Request_lines_are_limited() throws IOException {
+        InputStream in = new ByteArrayInputStream("token\r\nabc\n12345\nlast".getBytes(StandardCharsets.UTF_8));
+        assertEquals("token", CompilerDaemon.readLine(in, 8));
+        assertEquals("abc", CompilerDaemon.readLine(in, 3));
+        assertThrows(IOException.class, () -> CompilerDaemon.readLine(in, 4));
+        in.reset();
+        assertEquals("token", CompilerDaemon.readLine(in, 8));
+        assertEquals("abc", CompilerDaemon.readLine(in, 8));
+        assertEquals("12345", CompilerDaemon.readLine(in, 8));
+        assertEquals("last", CompilerDaemon.readLine(in, 8));
+        assertNull(CompilerDaemon.readLine(in, 8));
+    }
+
+    @Test
+    public void Port_argument_is_validated() {
+        assertEquals(7171, CompilerClient.parsePort("7171"));
+        assertEquals(-1, CompilerClient.parsePort("port"));
+        assertEquals(-1, CompilerClient.parsePort("65536"));
+        assertEquals(-1, CompilerClient.parsePort("-1"));
+    }
+
+    /**
+     * send raw request lines
+     * @return last line of the daemon
+     */
+    private static String request(int port, String... lines) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            PrintWriter writer = new PrintWriter(socket.getOutputStream(), false, StandardCharsets.UTF_8);
+            for (String line : lines) writer.println(line);
+            writer.flush();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            String last = null;
+            String line;
+            while ((line = reader.readLine()) != null) last = line;
+            return last;
+        }
+    }
+}
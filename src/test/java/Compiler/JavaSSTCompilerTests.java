@@ -0,0 +1,172 @@
+package Compiler;
+
+import Helper.XXHash64;
+import Scanner.ScanMode;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JavaSSTCompilerTests {
+
+    // files
+    private static final String CALL_TEST           = "./src/test/resources/pass_test/CallTest.java";
+    private static final String FINAL_ASSIGN_TEST   = "./src/test/resources/semantic_test/finalAssignTest.java";
+    private static final String E_MULTIPLE_ERRORS   = "./src/test/resources/error_case/Error_MultipleErrors.jsst";
+
+    private static final String PASS_DIR            = "./src/test/resources/pass_test";
+
+    // XXH64 of the class files of the pass_test sources per compiler version, add a line for every new version
+    private static final Map<String, String> CODEGEN_HASHES = Map.of(
+            "1.2", "973827da22e857d0",
+            "1.3", "6d7d170240fd1591"
+    );
+
+    private final JavaSSTCompiler compiler = new JavaSSTCompiler();
+
+    @Test
+    public void Compile_source_text() throws Exception {
+        CompileResult result = compiler.compile("CallTest.java", Files.readString(Path.of(CALL_TEST)));
+        assertTrue(result.isSuccess(), result.getDiagnostics().toString());
+        assertEquals("CallTest", result.getClassName());
+        assertEquals(13, run(result, 4));
+    }
+
+    @Test
+    public void Compile_byte_buffer() throws IOException {
+        ByteBuffer source = ByteBuffer.wrap(Files.readAllBytes(Path.of(CALL_TEST)));
+        CompileResult result = compiler.compile("CallTest.java", source);
+        assertTrue(result.isSuccess());
+        assertEquals(0, source.position());
+        assertArrayEquals(compiler.compileFile(CALL_TEST).getClassFile(), result.getClassFile());
+    }
+
+    @Test
+    public void Syntax_errors() throws FileNotFoundException {
+        CompileResult result = compiler.compileFile(E_MULTIPLE_ERRORS);
+        assertFalse(result.isSuccess());
+        assertNull(result.getClassFile());
+        assertNull(result.getAst());
+        assertEquals(6, result.getDiagnostics().size());
+        assertEquals("Error_MultipleErrors.jsst", result.getDiagnostics().get(0).getPosition().getFilename());
+    }
+
+    @Test
+    public void Semantic_errors_with_position() throws FileNotFoundException {
+        CompileResult result = compiler.compileFile(FINAL_ASSIGN_TEST);
+        assertFalse(result.isSuccess());
+        assertEquals(1, result.getDiagnostics().size());
+        assertEquals(16, result.getDiagnostics().get(0).getPosition().getLine());
+        assertEquals(9, result.getDiagnostics().get(0).getPosition().getColumn());
+    }
+
+    @Test
+    public void Unassigned_local_in_own_assignment() {
+        for (String statement : new String[]{"y = y * 3;", "y = m(y);"}) {
+            CompileResult result = compiler.compile("U.java",
+                    "class U { public int m(int x) { int y; " + statement + " return y; } }");
+            assertFalse(result.isSuccess(), statement);
+            assertEquals(1, result.getDiagnostics().size(), statement);
+            assertNull(result.getClassFile());
+        }
+    }
+
+    @Test
+    public void Code_too_large_is_a_diagnostic() throws Exception {
+        StringBuilder sum = new StringBuilder("x");
+        for (int i = 0; i < 35000; i++) sum.append(" + x");
+        String source = "class U { public int run(int x) { return " + sum + "; } }";
+        // without splitting
+        CompileResult result = new JavaSSTCompiler(ScanMode.DIRECT, false, false, Integer.MAX_VALUE).compile("U.java", source);
+        assertFalse(result.isSuccess());
+        assertEquals(1, result.getDiagnostics().size());
+        assertTrue(result.getDiagnostics().get(0).getMessage().contains("Code too large"),
+                result.getDiagnostics().toString());
+        assertNull(result.getClassFile());
+
+        // the expression is outlined
+        result = compiler.compile("U.java", source);
+        assertTrue(result.isSuccess(), result.getDiagnostics().toString());
+        assertEquals(35001 * 2, run(result, 2));
+    }
+
+    @Test
+    public void Concurrent_compilations() throws Exception {
+        String source = Files.readString(Path.of(CALL_TEST));
+        byte[] expected = compiler.compile("CallTest.java", source).getClassFile();
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<CompileResult>> results = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                results.add(pool.submit(() -> compiler.compile("CallTest.java", source)));
+            }
+            for (Future<CompileResult> f : results) {
+                assertArrayEquals(expected, f.get().getClassFile());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void Phase_stats() throws FileNotFoundException {
+        assertNull(compiler.compileFile(CALL_TEST).getStats());
+
+        CompileResult result = new JavaSSTCompiler(ScanMode.DIRECT, false, true).compileFile(CALL_TEST);
+        CompileStats stats = result.getStats();
+        assertNotNull(stats);
+        assertEquals(1, stats.getFiles());
+        assertTrue(stats.getTokens() > 0);
+        assertTrue(stats.getAstNodes() > 0);
+        assertTrue(stats.getConstantPoolSize() > 0);
+        assertTrue(stats.getCodeSize() > 0);
+        assertEquals(result.getClassFile().length, stats.getClassFileSize());
+        for (CompileStats.Phase phase : CompileStats.Phase.values()) {
+            assertTrue(stats.getNanos(phase) > 0, phase.getLabel());
+        }
+        if (CompileStats.isAllocationSupported()) assertTrue(stats.getAllocatedBytes(CompileStats.Phase.PARSE) > 0);
+        assertTrue(stats.toJson().startsWith("{\"phases\":{\"scan\":{\"nanos\":"));
+    }
+
+    @Test
+    public void Generated_code_matches_version() throws IOException {
+        // smallest limit Test.meth1 can be split below
+        JavaSSTCompiler split = new JavaSSTCompiler(ScanMode.DIRECT, false, false, 56);
+        long hash = 0;
+        List<Path> sources;
+        try (var files = Files.list(Path.of(PASS_DIR))) {
+            sources = files.sorted().collect(Collectors.toList());
+        }
+        for (Path source : sources) {
+            for (JavaSSTCompiler c : List.of(compiler, split)) {
+                CompileResult result = c.compileFile(source.toString());
+                assertTrue(result.isSuccess(), source + " " + result.getDiagnostics());
+                hash = XXHash64.hash(result.getClassFile(), hash);
+            }
+        }
+        assertEquals(CODEGEN_HASHES.get(JavaSSTCompiler.VERSION), Long.toHexString(hash),
+                "generated code changed - bump JavaSSTCompiler.VERSION");
+    }
+
+    private static Object run(CompileResult result, int x) throws Exception {
+        byte[] bytes = result.getClassFile();
+        Class<?> c = new ClassLoader() {
+            Class<?> define() { return defineClass(result.getClassName(), bytes, 0, bytes.length); }
+        }.define();
+        Object o = c.getDeclaredConstructor().newInstance();
+        return c.getMethod("run", int.class).invoke(o, x);
+    }
+}
@@ -1,9 +1,15 @@
 package Scanner;
 
+import Data.Diagnostic;
 import Parser.Parser;
+import Parser.ParserErrors;
 import org.junit.jupiter.api.Test;
 
 import java.io.FileNotFoundException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ParserTests {
 
@@ -16,36 +22,85 @@ public class ParserTests {
     private static final String E_MISSING_ELSE          = "./src/test/resources/error_case/Error_MissingElse.jsst";
     private static final String E_MISSING_SEMI_METHOD   = "./src/test/resources/error_case/Error_MissingSemicolonInMethod.jsst";
     private static final String E_MISSING_STATEMENT     = "./src/test/resources/error_case/Error_MissingStatement.jsst";
+    private static final String E_MULTIPLE_ERRORS       = "./src/test/resources/error_case/Error_MultipleErrors.jsst";
+    private static final String E_FACTOR_BEFORE_OP      = "./src/test/resources/error_case/Error_FactorBeforeOperator.jsst";
+    private static final String E_FACTOR_AFTER_OP       = "./src/test/resources/error_case/Error_FactorAfterOperator.jsst";
+    private static final String E_NUMBER_TOO_LARGE      = "./src/test/resources/error_case/Error_NumberTooLarge.jsst";
 
 
     // normal tests
     @Test
-    public void FSU_Test_complete(){ runOverFile(FSU_TEST); }
+    public void FSU_Test_complete() throws FileNotFoundException {
+        assertTrue(runOverFile(FSU_TEST).isEmpty());
+    }
 
     // error tests
     @Test
-    public void ErrorTest_MissBra_If(){ runOverFile(E_MISSING_BRACKET_IF); }
+    public void ErrorTest_MissBra_If() throws FileNotFoundException {
+        assertSingleError(E_MISSING_BRACKET_IF, ParserErrors.ERROR_LPAREN, 8);
+    }
 
     @Test
-    public void ErrorTest_MissBra_Class(){ runOverFile(E_MISSING_BRACKET_CLASS); }
+    public void ErrorTest_MissBra_Class() throws FileNotFoundException {
+        assertSingleError(E_MISSING_BRACKET_CLASS, ParserErrors.ERROR_RCBRACKET, 6);
+    }
 
     @Test
-    public void ErrorTest_MissElse_If(){ runOverFile(E_MISSING_ELSE); }
+    public void ErrorTest_MissElse_If() throws FileNotFoundException {
+        assertSingleError(E_MISSING_ELSE, ParserErrors.ERROR_ELSE, 11);
+    }
 
     @Test
-    public void ErrorTest_MissSemi(){ runOverFile(E_MISSING_SEMI_METHOD); }
+    public void ErrorTest_MissSemi() throws FileNotFoundException {
+        assertSingleError(E_MISSING_SEMI_METHOD, ParserErrors.ERROR_SEMI, 8);
+    }
 
     @Test
-    public void ErrorTest_MissStatement(){ runOverFile(E_MISSING_STATEMENT); }
+    public void ErrorTest_MissStatement() throws FileNotFoundException {
+        assertSingleError(E_MISSING_STATEMENT, ParserErrors.ERROR_STATEMENT, 7);
+    }
 
-    private void runOverFile(String path){
-        try {
-            Parser parser = new Parser(path);
-            parser.parseFile();
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
+    @Test
+    public void ErrorTest_FactorBeforeOperator() throws FileNotFoundException {
+        assertSingleError(E_FACTOR_BEFORE_OP, ParserErrors.ERROR_FACTOR, 7);
+    }
+
+    @Test
+    public void ErrorTest_FactorAfterOperator() throws FileNotFoundException {
+        assertSingleError(E_FACTOR_AFTER_OP, ParserErrors.ERROR_FACTOR, 7);
+    }
+
+    @Test
+    public void ErrorTest_NumberTooLarge() throws FileNotFoundException {
+        assertSingleError(E_NUMBER_TOO_LARGE, ParserErrors.ERROR_NUMBER, 7);
+    }
+
+    @Test
+    public void ErrorTest_MultipleErrors() throws FileNotFoundException {
+        List<Diagnostic> diagnostics = runOverFile(E_MULTIPLE_ERRORS);
+        ParserErrors[] errors = {
+                ParserErrors.ERROR_SEMI, ParserErrors.ERROR_SEMI, ParserErrors.ERROR_FACTOR,
+                ParserErrors.ERROR_RPAREN, ParserErrors.ERROR_LPAREN, ParserErrors.ERROR_ELSE
+        };
+        int[] lines = { 8, 11, 12, 12, 18, 30 };
+        assertEquals(errors.length, diagnostics.size(), diagnostics.toString());
+        for (int i = 0; i < errors.length; i++) {
+            assertEquals(errors[i].message, diagnostics.get(i).getMessage());
+            assertEquals(lines[i], diagnostics.get(i).getPosition().getLine());
         }
     }
 
+    private void assertSingleError(String path, ParserErrors error, int line) throws FileNotFoundException {
+        List<Diagnostic> diagnostics = runOverFile(path);
+        assertEquals(1, diagnostics.size(), diagnostics.toString());
+        assertEquals(error.message, diagnostics.get(0).getMessage());
+        assertEquals(line, diagnostics.get(0).getPosition().getLine());
+    }
+
+    private List<Diagnostic> runOverFile(String path) throws FileNotFoundException {
+        Parser parser = new Parser(path);
+        return parser.parseFile();
+    }
+
 
 }
@@ -0,0 +1,117 @@
+package Scanner;
+
+import Data.TokenBuffer;
+import Data.TokenType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ScannerTests {
+
+    private static final String[] RESOURCE_DIRS = {
+            "./src/test/resources/pass_test",
+            "./src/test/resources/error_case",
+            "./src/test/resources/semantic_test"
+    };
+
+    @TempDir
+    Path tmp;
+
+    @Test
+    public void Table_scanner_equals_direct_scanner() throws IOException {
+        for (String dir : RESOURCE_DIRS) {
+            File[] files = new File(dir).listFiles();
+            if (files == null) continue;
+            for (File f : files) {
+                assertSameTokens(f.getPath());
+            }
+        }
+    }
+
+    @Test
+    public void Table_scanner_equals_direct_scanner_edge_cases() throws IOException {
+        String[] sources = {
+                "",
+                "   \n\t ",
+                "class A{}",
+                "a==b<=c>=d!=e=f<g>h!i",
+                "x = 12+3*4/5-6;",
+                "// line comment",
+                "/* open block",
+                "/** doc */ int a; /* b */ /",
+                "a/*x*/b//y\nc",
+                "/*/ x */ y",
+                "a /*/*/ b /**/ c /***/ d",
+                "12ab 0 007",
+                "{ } ( ) , ; @ # ä"
+        };
+        int i = 0;
+        for (String source : sources) {
+            Path file = tmp.resolve("Edge" + i++ + ".java");
+            Files.write(file, source.getBytes(StandardCharsets.ISO_8859_1));
+            assertSameTokens(file.toString());
+        }
+    }
+
+    @Test
+    public void Keywords_and_near_misses() throws IOException {
+        Path file = tmp.resolve("Keywords.java");
+        Files.write(file, ("class public final void int if else while return "
+                + "clas classes Class iff in int0 elsee ELSE whilst retur returns x v").getBytes(StandardCharsets.ISO_8859_1));
+        TokenType[] expected = {
+                TokenType.CLASS, TokenType.PUBLIC, TokenType.FINAL, TokenType.VOID, TokenType.INT,
+                TokenType.IF, TokenType.ELSE, TokenType.WHILE, TokenType.RETURN
+        };
+        for (ScanMode mode : ScanMode.values()) {
+            TokenBuffer tokens = new TokenBuffer();
+            new Scanner(file.toString(), mode).scan(tokens);
+            assertEquals(expected.length + 14, tokens.size());
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(expected[i], tokens.getType(i));
+            }
+            for (int i = expected.length; i < tokens.size() - 1; i++) {
+                assertEquals(TokenType.IDENT, tokens.getType(i), tokens.getValue(i));
+            }
+        }
+    }
+
+    @Test
+    public void Number_values_and_overflow() throws IOException {
+        Path file = tmp.resolve("Numbers.java");
+        Files.write(file, "0 007 2147483647 2147483648 99999999999 12".getBytes(StandardCharsets.ISO_8859_1));
+        int[] expected = {0, 7, Integer.MAX_VALUE, TokenBuffer.OVERFLOW, TokenBuffer.OVERFLOW, 12};
+        for (ScanMode mode : ScanMode.values()) {
+            TokenBuffer tokens = new TokenBuffer();
+            new Scanner(file.toString(), mode).scan(tokens);
+            assertEquals(expected.length + 1, tokens.size());
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals(TokenType.NUMBER, tokens.getType(i));
+                assertEquals(expected[i], tokens.getIntValue(i), mode + " " + tokens.getValue(i));
+            }
+        }
+    }
+
+    private static void assertSameTokens(String path) throws IOException {
+        TokenBuffer direct = new TokenBuffer();
+        TokenBuffer table = new TokenBuffer();
+        new Scanner(path, ScanMode.DIRECT).scan(direct);
+        new Scanner(path, ScanMode.TABLE).scan(table);
+
+        assertEquals(direct.size(), table.size(), path);
+        for (int i = 0; i < direct.size(); i++) {
+            assertEquals(direct.getType(i), table.getType(i), path + " token " + i);
+            assertEquals(direct.getStart(i), table.getStart(i), path + " token " + i);
+            assertEquals(direct.getLength(i), table.getLength(i), path + " token " + i);
+            assertEquals(direct.getIntValue(i), table.getIntValue(i), path + " token " + i);
+            assertEquals(direct.getLine(i), table.getLine(i), path + " token " + i);
+        }
+        assertEquals(TokenType.EOF, table.getType(table.size() - 1), path);
+    }
+}
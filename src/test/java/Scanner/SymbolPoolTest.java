@@ -0,0 +1,68 @@
+package Scanner;
+
+import Data.SymbolPool;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class SymbolPoolTest {
+
+    @Test
+    public void Same_name_same_id() {
+        SymbolPool symbols = new SymbolPool();
+        int a = symbols.intern("poolTestName");
+        int b = symbols.intern(new StringBuilder("poolTest").append("Name"));
+        assertEquals(a, b);
+        assertNotEquals(a, symbols.intern("poolTestOther"));
+        assertSame(symbols.name(a), symbols.name(b));
+        assertEquals("poolTestName", symbols.name(a));
+    }
+
+    @Test
+    public void Pools_are_independent() {
+        SymbolPool first = new SymbolPool();
+        SymbolPool second = new SymbolPool();
+        first.intern("onlyInFirst");
+        assertEquals(0, second.intern("onlyInSecond"));
+        assertEquals(1, second.size());
+        assertEquals("onlyInFirst", first.name(0));
+    }
+
+    @Test
+    public void Concurrent_intern() throws Exception {
+        int threads = 8;
+        int names = 5000;
+        SymbolPool symbols = new SymbolPool();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<int[]>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(pool.submit(() -> {
+                    int[] ids = new int[names];
+                    for (int i = 0; i < names; i++) {
+                        ids[i] = symbols.intern("concurrent" + i);
+                    }
+                    return ids;
+                }));
+            }
+            int[] first = results.get(0).get();
+            for (Future<int[]> result : results) {
+                int[] ids = result.get();
+                for (int i = 0; i < names; i++) {
+                    assertEquals(first[i], ids[i]);
+                    assertEquals("concurrent" + i, symbols.name(ids[i]));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
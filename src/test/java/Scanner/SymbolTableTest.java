@@ -1,21 +1,72 @@
 package Scanner;
 
+import Data.ObjClass;
 import Data.STObject;
+import Data.STType;
+import Data.SymbolPool;
 import Data.SymbolTable;
 import Parser.Parser;
 import org.junit.jupiter.api.Test;
 
 import java.io.FileNotFoundException;
 
+import static org.junit.jupiter.api.Assertions.*;
+
 public class SymbolTableTest {
 
     // files
     private static final String FSU_TEST                = "./src/test/resources/pass_test/Test.java";
 
+    private final SymbolPool symbols = new SymbolPool();
+
     // tests
     @Test
     public void FSUTest_complete(){ runOverFile(FSU_TEST); }
 
+    @Test
+    public void Duplicate_detected_by_name(){
+        SymbolTable st = new SymbolTable();
+        assertTrue(st.insert(var("dupA", ObjClass.VAR)));
+        assertFalse(st.insert(var("dupA", ObjClass.PAR)));
+        assertEquals(1, st.getObjects().size());
+    }
+
+    @Test
+    public void Lookup_walks_enclosing_scopes(){
+        SymbolTable global = new SymbolTable();
+        SymbolTable local = new SymbolTable(global);
+        int g = symbols.intern("scopeGlobal");
+        int l = symbols.intern("scopeLocal");
+        global.insert(var("scopeGlobal", ObjClass.VAR));
+        local.insert(var("scopeLocal", ObjClass.VAR));
+
+        assertNull(local.find(g));
+        assertNotNull(local.lookup(g));
+        assertNotNull(local.lookup(l));
+        assertNull(global.lookup(l));
+
+        // shadowing in an inner scope is allowed
+        assertTrue(local.insert(var("scopeGlobal", ObjClass.VAR)));
+        assertSame(local.find(g), local.lookup(g));
+    }
+
+    @Test
+    public void Declaration_order_kept(){
+        SymbolTable st = new SymbolTable();
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(st.insert(var("orderVar" + i, ObjClass.VAR)));
+        }
+        for (int i = 0; i < 5000; i++) {
+            STObject obj = st.getObjects().get(i);
+            assertEquals("orderVar" + i, obj.getName());
+            assertSame(obj, st.find(obj.getSymbol()));
+        }
+    }
+
+    private STObject var(String name, ObjClass objClass){
+        return new STObject(symbols.intern(name), name, objClass, STType.INT);
+    }
+
     private void runOverFile(String path){
         try {
             Parser parser = new Parser(path);
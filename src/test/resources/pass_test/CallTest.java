@@ -0,0 +1,21 @@
+class CallTest {
+    int total;
+
+    public int add(int a, int b) {
+        return a + b;
+    }
+
+    public void bump(int n) {
+        total = n;
+    }
+
+    public int run(int x) {
+        int y;
+        total = 0;
+        y = add(x + 1, (x * 2) - add(1, 2));
+        bump(y);
+        add(y, y);
+        bump(add(total, 3));
+        return total;
+    }
+}